@@ -6,10 +6,15 @@ import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
 import pl.nop.aiplayers.ai.controller.AIControllerRegistry;
+import pl.nop.aiplayers.ai.controller.ControllerExecutor;
+import pl.nop.aiplayers.ai.controller.ControllerExecutorConfig;
 import pl.nop.aiplayers.ai.controller.DummyAIController;
 import pl.nop.aiplayers.ai.controller.RemotePlannerAIController;
 import pl.nop.aiplayers.ai.controller.RemotePlannerConfig;
+import pl.nop.aiplayers.ai.trigger.TriggerBus;
 import pl.nop.aiplayers.ai.ActionExecutor;
+import pl.nop.aiplayers.autoscale.BotAutoscaler;
+import pl.nop.aiplayers.autoscale.BotAutoscalerConfig;
 import pl.nop.aiplayers.chat.AIChatListener;
 import pl.nop.aiplayers.chat.AIChatService;
 import pl.nop.aiplayers.chat.engagement.ChatEngagementConfig;
@@ -17,18 +22,46 @@ import pl.nop.aiplayers.chat.engagement.ChatEngagementService;
 import pl.nop.aiplayers.command.AIPlayersCommand;
 import pl.nop.aiplayers.command.AIPlayersTabCompleter;
 import pl.nop.aiplayers.economy.AIEconomyService;
+import pl.nop.aiplayers.load.LoadGovernor;
+import pl.nop.aiplayers.load.LoadGovernorConfig;
 import pl.nop.aiplayers.logging.AIPlayersFileLogger;
 import pl.nop.aiplayers.manager.AIPlayerManager;
+import pl.nop.aiplayers.manager.BotInventoryListener;
 import pl.nop.aiplayers.model.AIBehaviorMode;
 import pl.nop.aiplayers.model.AIControllerType;
 import pl.nop.aiplayers.npc.NPCJoinListener;
+import pl.nop.aiplayers.planner.BalancedPlannerTransport;
+import pl.nop.aiplayers.planner.HttpPlannerTransport;
+import pl.nop.aiplayers.planner.PlannerBalancerConfig;
+import pl.nop.aiplayers.planner.PlannerResilienceConfig;
+import pl.nop.aiplayers.planner.PlannerTransport;
+import pl.nop.aiplayers.planner.ResilientPlannerTransport;
+import pl.nop.aiplayers.planner.SharedHttpTransport;
+import pl.nop.aiplayers.planner.SharedHttpTransportConfig;
+import pl.nop.aiplayers.planner.UnixSocketPlannerConfig;
+import pl.nop.aiplayers.planner.UnixSocketPlannerTransport;
+import pl.nop.aiplayers.planner.WebSocketPlannerConfig;
+import pl.nop.aiplayers.planner.WebSocketPlannerTransport;
 import pl.nop.aiplayers.placeholder.AIPlayersPlaceholderExpansion;
 import pl.nop.aiplayers.server.AIServerListPingListener;
 import pl.nop.aiplayers.storage.AIPlayerStorage;
+import pl.nop.aiplayers.spatial.PlayerPositionListener;
+import pl.nop.aiplayers.spatial.SpatialIndex;
 import pl.nop.aiplayers.task.AITickTask;
+import pl.nop.aiplayers.task.DormancyPolicy;
+import pl.nop.aiplayers.task.LodPolicy;
+import pl.nop.aiplayers.task.PartitionedDecisionRunner;
+import pl.nop.aiplayers.task.PhasedTickScheduler;
+import pl.nop.aiplayers.task.TickTimings;
+import pl.nop.aiplayers.task.WorldSnapshotBuffer;
 import pl.nop.aiplayers.velocity.VelocityBridgeConfig;
 import pl.nop.aiplayers.velocity.VelocityPlayerCountBridge;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public class AIPlayersPlugin extends JavaPlugin {
 
     private AIPlayerManager aiPlayerManager;
@@ -39,6 +72,18 @@ public class AIPlayersPlugin extends JavaPlugin {
     private ActionExecutor actionExecutor;
     private AIPlayersFileLogger fileLogger;
     private ChatEngagementService engagementService;
+    private LoadGovernor loadGovernor;
+    private SpatialIndex<String> playerIndex;
+    private TriggerBus triggerBus;
+    private WorldSnapshotBuffer snapshotBuffer;
+    private TickTimings tickTimings;
+    private PartitionedDecisionRunner partitionRunner;
+    private BotAutoscaler autoscaler;
+    private SharedHttpTransport sharedHttp;
+    private volatile BalancedPlannerTransport plannerBalancer;
+    private PlannerTransport sharedPlannerTransport;
+    private final List<ResilientPlannerTransport> resilientTransports = new CopyOnWriteArrayList<>();
+    private WebSocketPlannerTransport plannerChannel;
     private BukkitTask tickTask;
     private VelocityPlayerCountBridge velocityBridge;
 
@@ -51,13 +96,14 @@ public class AIPlayersPlugin extends JavaPlugin {
         this.chatService = new AIChatService(this,
                 config.getInt("chat.history-size", 20),
                 config.getLong("chat.rate-limit-millis", 3000L));
-        this.economyService = new AIEconomyService(this, config.getBoolean("economy.enabled", true));
+        this.economyService = new AIEconomyService(this, config.getBoolean("economy.enabled", true),
+                config.getLong("economy.balance-cache-ttl-millis", 5000L));
         this.storage = new AIPlayerStorage(getDataFolder());
+        this.loadGovernor = new LoadGovernor(this, new LoadGovernorConfig(config));
 
         RemotePlannerConfig remoteConfig = new RemotePlannerConfig(config);
         AIControllerType defaultController = parseControllerType(config.getString("ai.default.controller-type", "DUMMY"));
-        if (remoteConfig.isEnabled() && defaultController == AIControllerType.DUMMY
-                && remoteConfig.getBaseUrl() != null && !remoteConfig.getBaseUrl().isBlank()) {
+        if (remoteConfig.isEnabled() && defaultController == AIControllerType.DUMMY && remoteConfig.hasEndpoints()) {
             defaultController = AIControllerType.REMOTE;
             String message = "Remote planner enabled with base-url; default controller set to REMOTE. "
                     + "Set ai.default.controller-type to override.";
@@ -65,27 +111,48 @@ public class AIPlayersPlugin extends JavaPlugin {
             fileLogger.info(message);
         }
         AIBehaviorMode defaultBehavior = parseBehaviorMode(config.getString("ai.default.behavior-mode", "WANDER"));
-        this.aiPlayerManager = new AIPlayerManager(this, economyService, defaultController, defaultBehavior);
+        double cellSize = config.getDouble("ai.spatial.cell-size", 16.0);
+        this.playerIndex = new SpatialIndex<>(cellSize);
+        this.aiPlayerManager = new AIPlayerManager(this, economyService, new SpatialIndex<>(cellSize), defaultController,
+                defaultBehavior);
+        this.snapshotBuffer = new WorldSnapshotBuffer(economyService, chatService, playerIndex,
+                aiPlayerManager.getBotIndex());
 
-        this.actionExecutor = new ActionExecutor(chatService,
+        this.actionExecutor = new ActionExecutor(chatService, aiPlayerManager.getBotIndex(),
                 config.getInt("ai.action-queue-size", 5),
                 config.getLong("ai.action-timeout-millis", 4000L),
                 config.getLong("ai.action-cooldown-millis", 500L));
-        this.engagementService = new ChatEngagementService(this, chatService, aiPlayerManager, new ChatEngagementConfig(config));
+        this.sharedHttp = new SharedHttpTransport(this, new SharedHttpTransportConfig(config));
+        openPlannerTransport(remoteConfig);
+        ChatEngagementConfig engagementConfig = new ChatEngagementConfig(config);
+        this.engagementService = new ChatEngagementService(this, chatService, aiPlayerManager, engagementConfig,
+                loadGovernor, createEngagementTransport(engagementConfig));
 
-        DummyAIController dummyController = new DummyAIController(config.getInt("chat.memory-size", 20));
-        this.controllerRegistry = new AIControllerRegistry();
+        this.controllerRegistry = new AIControllerRegistry(new ControllerExecutor(this, new ControllerExecutorConfig(config)));
+        DummyAIController dummyController = new DummyAIController(config.getInt("chat.memory-size", 20), loadGovernor,
+                controllerRegistry.getExecutor());
         this.controllerRegistry.registerDefaults(dummyController);
         registerRemoteController(remoteConfig);
+        this.triggerBus = new TriggerBus(aiPlayerManager, controllerRegistry);
+        chatService.addObserver(triggerBus::onChat);
+        chatService.addObserver(engagementService::onChatRecorded);
+        chatService.addObserver(entry -> {
+            if (plannerChannel != null) {
+                plannerChannel.publishChat(entry);
+            }
+        });
 
         loadProfiles();
         promoteRemoteControllerProfiles(remoteConfig, defaultController);
+        this.autoscaler = new BotAutoscaler(this, aiPlayerManager, new BotAutoscalerConfig(config));
         restoreSessions();
+        autoscaler.adopt(aiPlayerManager.getAllSessions());
         registerCommands();
         registerListeners();
         registerPlaceholders();
         initializeVelocityBridge();
         startTickTask();
+        autoscaler.start();
 
         getLogger().info("AIPlayers enabled with tick interval " + config.getInt("ai.tick-interval-ticks", 10));
         fileLogger.info("AIPlayers enabled. Logging to " + fileLogger.getCurrentLogFile());
@@ -101,7 +168,11 @@ public class AIPlayersPlugin extends JavaPlugin {
         PluginManager pluginManager = Bukkit.getPluginManager();
         pluginManager.registerEvents(new AIChatListener(this, chatService), this);
         pluginManager.registerEvents(new NPCJoinListener(this, aiPlayerManager), this);
+        pluginManager.registerEvents(new BotInventoryListener(aiPlayerManager), this);
         pluginManager.registerEvents(new AIServerListPingListener(aiPlayerManager), this);
+        PlayerPositionListener positionListener = new PlayerPositionListener(playerIndex);
+        positionListener.trackOnlinePlayers(Bukkit.getOnlinePlayers());
+        pluginManager.registerEvents(positionListener, this);
     }
 
     private void registerPlaceholders() {
@@ -113,17 +184,49 @@ public class AIPlayersPlugin extends JavaPlugin {
     }
 
     private void startTickTask() {
-        int interval = getConfig().getInt("ai.tick-interval-ticks", 10);
-        tickTask = new AITickTask(this, aiPlayerManager, controllerRegistry, economyService, chatService, actionExecutor, engagementService)
-                .runTaskTimer(this, interval, interval);
+        int interval = Math.max(1, getConfig().getInt("ai.tick-interval-ticks", 10));
+        PhasedTickScheduler scheduler = new PhasedTickScheduler(interval,
+                getConfig().getLong("ai.scheduler.tick-budget-nanos", 2_000_000L));
+        this.tickTimings = new TickTimings(getConfig().getLong("ai.timings.bot-window-millis", 10000L));
+        if (partitionRunner != null) {
+            partitionRunner.shutdown();
+        }
+        this.partitionRunner = new PartitionedDecisionRunner(getConfig());
+        LodPolicy lodPolicy = new LodPolicy(getConfig());
+        DormancyPolicy dormancyPolicy = new DormancyPolicy(getConfig());
+        if (lodPolicy.isEnabled() && dormancyPolicy.isEnabled()
+                && dormancyPolicy.getViewDistance() < lodPolicy.getFarDistance()) {
+            getLogger().warning("ai.dormancy.view-distance (" + dormancyPolicy.getViewDistance()
+                    + ") is below ai.lod.far-distance (" + lodPolicy.getFarDistance()
+                    + "); bots beyond view-distance go dormant and the UNOBSERVED tier is never used.");
+        }
+        tickTask = new AITickTask(this, aiPlayerManager, controllerRegistry, triggerBus, snapshotBuffer, playerIndex,
+                actionExecutor, engagementService, scheduler, partitionRunner, lodPolicy, dormancyPolicy,
+                loadGovernor, tickTimings, getConfig().getLong("ai.decision-timeout-millis", 15000L))
+                .runTaskTimer(this, 1L, 1L);
     }
 
     @Override
     public void onDisable() {
         aiPlayerManager.getAllSessions().forEach(session ->
                 session.getProfile().setLastKnownLocation(session.getNpcHandle().getLocation()));
+        if (autoscaler != null) {
+            autoscaler.shutdown();
+        }
         storage.saveAll(aiPlayerManager.getAllProfiles());
         aiPlayerManager.despawnAll();
+        if (partitionRunner != null) {
+            partitionRunner.shutdown();
+        }
+        if (sharedPlannerTransport != null) {
+            sharedPlannerTransport.shutdown();
+        }
+        if (sharedHttp != null) {
+            sharedHttp.shutdown();
+        }
+        if (controllerRegistry != null) {
+            controllerRegistry.shutdown();
+        }
         if (velocityBridge != null) {
             velocityBridge.shutdown();
         }
@@ -157,6 +260,34 @@ public class AIPlayersPlugin extends JavaPlugin {
         return storage;
     }
 
+    public LoadGovernor getLoadGovernor() {
+        return loadGovernor;
+    }
+
+    public TickTimings getTickTimings() {
+        return tickTimings;
+    }
+
+    public PartitionedDecisionRunner getPartitionRunner() {
+        return partitionRunner;
+    }
+
+    public BotAutoscaler getAutoscaler() {
+        return autoscaler;
+    }
+
+    public SharedHttpTransport getSharedHttp() {
+        return sharedHttp;
+    }
+
+    public BalancedPlannerTransport getPlannerBalancer() {
+        return plannerBalancer;
+    }
+
+    public List<ResilientPlannerTransport> getResilientTransports() {
+        return resilientTransports;
+    }
+
     public void requestVelocityBridgeUpdate() {
         if (velocityBridge != null) {
             velocityBridge.requestImmediateUpdate();
@@ -173,15 +304,32 @@ public class AIPlayersPlugin extends JavaPlugin {
                 config.getInt("ai.action-queue-size", 5),
                 config.getLong("ai.action-timeout-millis", 4000L),
                 config.getLong("ai.action-cooldown-millis", 500L));
+        RemotePlannerConfig remoteConfig = new RemotePlannerConfig(config);
+        SharedHttpTransport previousHttp = null;
+        SharedHttpTransportConfig httpConfig = new SharedHttpTransportConfig(config);
+        if (!httpConfig.equals(sharedHttp.getConfig())) {
+            previousHttp = sharedHttp;
+            sharedHttp = new SharedHttpTransport(this, httpConfig);
+        }
+        openPlannerTransport(remoteConfig);
+        Duration drainTimeout = remoteConfig.getRequestTimeout();
         if (engagementService != null) {
-            engagementService.updateConfig(new ChatEngagementConfig(config));
+            ChatEngagementConfig engagementConfig = new ChatEngagementConfig(config);
+            if (engagementConfig.getRequestTimeout().compareTo(drainTimeout) > 0) {
+                drainTimeout = engagementConfig.getRequestTimeout();
+            }
+            engagementService.updateConfig(engagementConfig, createEngagementTransport(engagementConfig));
         }
-        RemotePlannerConfig remoteConfig = new RemotePlannerConfig(config);
+        economyService.updateBalanceTtl(config.getLong("economy.balance-cache-ttl-millis", 5000L));
+        loadGovernor.updateConfig(new LoadGovernorConfig(config));
+        controllerRegistry.getExecutor().updateConfig(new ControllerExecutorConfig(config));
         registerRemoteController(remoteConfig);
+        if (previousHttp != null) {
+            previousHttp.shutdown(drainTimeout);
+        }
         AIControllerType defaultController = parseControllerType(config.getString("ai.default.controller-type", "DUMMY"));
         AIBehaviorMode defaultBehavior = parseBehaviorMode(config.getString("ai.default.behavior-mode", "WANDER"));
-        if (remoteConfig.isEnabled() && defaultController == AIControllerType.DUMMY
-                && remoteConfig.getBaseUrl() != null && !remoteConfig.getBaseUrl().isBlank()) {
+        if (remoteConfig.isEnabled() && defaultController == AIControllerType.DUMMY && remoteConfig.hasEndpoints()) {
             defaultController = AIControllerType.REMOTE;
         }
         aiPlayerManager.updateDefaults(defaultController, defaultBehavior);
@@ -190,16 +338,99 @@ public class AIPlayersPlugin extends JavaPlugin {
             tickTask.cancel();
         }
         startTickTask();
+        autoscaler.updateConfig(new BotAutoscalerConfig(config));
     }
 
     private void registerRemoteController(RemotePlannerConfig remoteConfig) {
-        if (remoteConfig.isEnabled() && (remoteConfig.getBaseUrl() == null || remoteConfig.getBaseUrl().isBlank())) {
-            getLogger().warning("Remote planner enabled but base-url is empty. Planner requests will be skipped.");
+        if (remoteConfig.isEnabled() && sharedPlannerTransport == null && !remoteConfig.hasEndpoints()) {
+            getLogger().warning("Remote planner enabled but base-url and endpoints are empty. Planner requests will be skipped.");
+        }
+        plannerBalancer = null;
+        PlannerTransport transport = sharedPlannerTransport;
+        if (transport == null) {
+            transport = createHttpPlannerTransport(remoteConfig);
+        }
+        RemotePlannerAIController remoteController = new RemotePlannerAIController(this, chatService, aiPlayerManager,
+                remoteConfig, loadGovernor, controllerRegistry.getExecutor(), transport, snapshotBuffer);
+        if (plannerChannel != null) {
+            plannerChannel.setPushHandler(remoteController::applyPushedAction);
         }
-        RemotePlannerAIController remoteController = new RemotePlannerAIController(this, chatService, aiPlayerManager, remoteConfig);
         controllerRegistry.register(AIControllerType.REMOTE, remoteController);
     }
 
+    private PlannerTransport createHttpPlannerTransport(RemotePlannerConfig remoteConfig) {
+        List<RemotePlannerConfig.Endpoint> endpoints = remoteConfig.getEndpoints();
+        if (endpoints.size() <= 1) {
+            String baseUrl = endpoints.isEmpty() ? remoteConfig.getBaseUrl() : endpoints.get(0).getBaseUrl();
+            return withResilience(new HttpPlannerTransport(this, sharedHttp, baseUrl + remoteConfig.getPlanPath(),
+                    remoteConfig.getRequestTimeout(), remoteConfig.isStreaming()), remoteConfig.getRequestTimeout());
+        }
+        List<BalancedPlannerTransport.Replica> replicas = new ArrayList<>();
+        for (RemotePlannerConfig.Endpoint endpoint : endpoints) {
+            PlannerTransport replica = withResilience(new HttpPlannerTransport(this, sharedHttp,
+                    endpoint.getBaseUrl() + remoteConfig.getPlanPath(), remoteConfig.getRequestTimeout(),
+                    remoteConfig.isStreaming()), remoteConfig.getRequestTimeout());
+            replicas.add(new BalancedPlannerTransport.Replica(replica, endpoint.getWeight()));
+        }
+        plannerBalancer = new BalancedPlannerTransport(this, replicas, new PlannerBalancerConfig(getConfig()));
+        String message = "Remote planner balancing requests across " + replicas.size() + " endpoints: "
+                + plannerBalancer.describe() + ".";
+        getLogger().info(message);
+        fileLogger.info(message);
+        return plannerBalancer;
+    }
+
+    private void openPlannerTransport(RemotePlannerConfig remoteConfig) {
+        if (sharedPlannerTransport != null) {
+            sharedPlannerTransport.shutdown();
+            sharedPlannerTransport = null;
+            plannerChannel = null;
+        }
+        resilientTransports.clear();
+        if (remoteConfig.getInvalidTransport() != null) {
+            getLogger().warning("Unknown ai.remote.transport: " + remoteConfig.getInvalidTransport() + ", defaulting to HTTP.");
+        }
+        if (!remoteConfig.isEnabled() || remoteConfig.getTransport() == RemotePlannerConfig.Transport.HTTP) {
+            return;
+        }
+        if (remoteConfig.getTransport() == RemotePlannerConfig.Transport.WEBSOCKET) {
+            plannerChannel = new WebSocketPlannerTransport(this, aiPlayerManager, new WebSocketPlannerConfig(getConfig()),
+                    sharedHttp.getClient());
+            plannerChannel.start();
+            sharedPlannerTransport = withResilience(plannerChannel, remoteConfig.getRequestTimeout());
+        } else {
+            UnixSocketPlannerConfig socketConfig = new UnixSocketPlannerConfig(getConfig());
+            sharedPlannerTransport = withResilience(new UnixSocketPlannerTransport(this, socketConfig),
+                    remoteConfig.getRequestTimeout());
+        }
+        String message = "Remote planner using " + remoteConfig.getTransport() + " transport "
+                + sharedPlannerTransport.describe() + ".";
+        getLogger().info(message);
+        fileLogger.info(message);
+    }
+
+    private PlannerTransport createEngagementTransport(ChatEngagementConfig engagementConfig) {
+        if (sharedPlannerTransport != null) {
+            return sharedPlannerTransport;
+        }
+        if (engagementConfig.getBaseUrl() == null || engagementConfig.getBaseUrl().isBlank()) {
+            return null;
+        }
+        String targetUrl = engagementConfig.getBaseUrl() + engagementConfig.getPlanPath();
+        return withResilience(new HttpPlannerTransport(this, sharedHttp, targetUrl, engagementConfig.getRequestTimeout(), false),
+                engagementConfig.getRequestTimeout());
+    }
+
+    private PlannerTransport withResilience(PlannerTransport transport, Duration requestTimeout) {
+        PlannerResilienceConfig resilienceConfig = new PlannerResilienceConfig(getConfig());
+        if (!resilienceConfig.isEnabled()) {
+            return transport;
+        }
+        ResilientPlannerTransport resilient = new ResilientPlannerTransport(this, transport, resilienceConfig, requestTimeout);
+        resilientTransports.add(resilient);
+        return resilient;
+    }
+
     private void loadProfiles() {
         storage.loadAll().forEach(aiPlayerManager::addProfile);
         getLogger().info("Loaded " + aiPlayerManager.getAllProfiles().size() + " AI player profiles.");
@@ -224,9 +455,11 @@ public class AIPlayersPlugin extends JavaPlugin {
     }
 
     private void restoreSessions() {
-        int spawned = aiPlayerManager.spawnStoredProfiles();
+        int limit = autoscaler.getStartupLimit();
+        int spawned = aiPlayerManager.spawnStoredProfiles(limit);
         if (spawned > 0) {
-            String message = "Restored " + spawned + " AI player session(s) from storage.";
+            String message = "Restored " + spawned + " AI player session(s) from storage"
+                    + (limit == Integer.MAX_VALUE ? "." : " (autoscaler startup target " + limit + "); the rest stay idle.");
             getLogger().info(message);
             fileLogger.info(message);
         }
@@ -6,29 +6,68 @@ import org.bukkit.entity.Player;
 import pl.nop.aiplayers.chat.AIChatService;
 import pl.nop.aiplayers.model.AIPlayerSession;
 import pl.nop.aiplayers.npc.NPCHandle;
+import pl.nop.aiplayers.spatial.SpatialIndex;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class ActionExecutor {
 
+    private static final long UNTRACKED_GENERATION = 0L;
+
     private final AIChatService chatService;
+    private final SpatialIndex<AIPlayerSession> botIndex;
     private int maxQueueSize;
     private long actionTimeoutMillis;
     private long actionCooldownMillis;
     private final Map<UUID, Deque<QueuedAction>> queues = new HashMap<>();
     private final Map<UUID, Long> lastActionMillis = new HashMap<>();
+    private final Queue<InboxEntry> inbox = new ConcurrentLinkedQueue<>();
+    private int lastDrainSize;
 
-    public ActionExecutor(AIChatService chatService, int maxQueueSize, long actionTimeoutMillis, long actionCooldownMillis) {
+    public ActionExecutor(AIChatService chatService, SpatialIndex<AIPlayerSession> botIndex, int maxQueueSize,
+                          long actionTimeoutMillis, long actionCooldownMillis) {
         this.chatService = chatService;
+        this.botIndex = botIndex;
         this.maxQueueSize = Math.max(1, maxQueueSize);
         this.actionTimeoutMillis = Math.max(0, actionTimeoutMillis);
         this.actionCooldownMillis = Math.max(0, actionCooldownMillis);
     }
 
+    public void enqueue(AIPlayerSession session, Action action) {
+        inbox.offer(new InboxEntry(session, UNTRACKED_GENERATION, action));
+    }
+
+    public void enqueueDecision(AIPlayerSession session, long generation, Action action) {
+        inbox.offer(new InboxEntry(session, generation, action));
+    }
+
+    public void drainInbox() {
+        int drained = 0;
+        InboxEntry entry;
+        while ((entry = inbox.poll()) != null) {
+            drained++;
+            AIPlayerSession session = entry.session;
+            if (entry.generation != UNTRACKED_GENERATION && !session.getDecisionPipeline().complete(entry.generation)) {
+                continue;
+            }
+            if (session.isDespawned() || entry.action == null) {
+                continue;
+            }
+            submit(session, entry.action);
+        }
+        lastDrainSize = drained;
+    }
+
+    public int getLastDrainSize() {
+        return lastDrainSize;
+    }
+
     public void submit(AIPlayerSession session, Action action) {
         if (action == null || action.getType() == ActionType.IDLE) {
             return;
@@ -83,6 +122,7 @@ public class ActionExecutor {
             case MOVE_TO:
                 if (action.getTargetLocation() != null) {
                     npc.moveTo(action.getTargetLocation());
+                    botIndex.update(session.getProfile().getUuid(), session, npc.getLocation());
                 }
                 break;
             case FOLLOW_PLAYER:
@@ -92,6 +132,7 @@ public class ActionExecutor {
                         Location targetLoc = target.getLocation().clone();
                         targetLoc.setY(npc.getLocation().getY());
                         npc.moveTo(targetLoc);
+                        botIndex.update(session.getProfile().getUuid(), session, npc.getLocation());
                     }
                 }
                 break;
@@ -107,6 +148,8 @@ public class ActionExecutor {
                 break;
             case BUY_ITEM:
             case SELL_ITEM:
+                session.markInventoryDirty();
+                break;
             case CUSTOM:
             default:
                 break;
@@ -114,6 +157,18 @@ public class ActionExecutor {
         session.getProfile().setLastKnownLocation(npc.getLocation());
     }
 
+    private static class InboxEntry {
+        private final AIPlayerSession session;
+        private final long generation;
+        private final Action action;
+
+        private InboxEntry(AIPlayerSession session, long generation, Action action) {
+            this.session = session;
+            this.generation = generation;
+            this.action = action;
+        }
+    }
+
     private static class QueuedAction {
         private final Action action;
         private final long createdAtMillis;
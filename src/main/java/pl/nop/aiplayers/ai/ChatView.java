@@ -0,0 +1,43 @@
+package pl.nop.aiplayers.ai;
+
+import pl.nop.aiplayers.chat.AIChatService;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class ChatView {
+
+    public static final ChatView EMPTY = new ChatView(Collections.emptyList());
+
+    private final List<AIChatService.ChatEntry> entries;
+
+    public ChatView(List<AIChatService.ChatEntry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public List<AIChatService.ChatEntry> getEntries() {
+        return entries;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public long getLatestSequence() {
+        return entries.isEmpty() ? 0L : entries.get(entries.size() - 1).getSequence();
+    }
+
+    public List<AIChatService.ChatEntry> since(long sequence) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).getSequence() <= sequence) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return entries.subList(low, entries.size());
+    }
+}
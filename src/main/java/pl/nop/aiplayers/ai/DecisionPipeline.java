@@ -0,0 +1,80 @@
+package pl.nop.aiplayers.ai;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DecisionPipeline {
+
+    public static final long SKIPPED = -1L;
+
+    private final Object lock = new Object();
+    private long generation;
+    private boolean inFlight;
+    private long inFlightSinceMillis;
+    private final AtomicLong startedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong discardedCount = new AtomicLong();
+    private final AtomicLong appliedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+
+    public long tryBegin(long nowMillis, long timeoutMillis) {
+        synchronized (lock) {
+            if (inFlight) {
+                if (timeoutMillis <= 0 || nowMillis - inFlightSinceMillis < timeoutMillis) {
+                    skippedCount.incrementAndGet();
+                    return SKIPPED;
+                }
+                timedOutCount.incrementAndGet();
+            }
+            generation++;
+            inFlight = true;
+            inFlightSinceMillis = nowMillis;
+            startedCount.incrementAndGet();
+            return generation;
+        }
+    }
+
+    public boolean complete(long decisionGeneration) {
+        synchronized (lock) {
+            if (decisionGeneration != generation) {
+                discardedCount.incrementAndGet();
+                return false;
+            }
+            inFlight = false;
+            appliedCount.incrementAndGet();
+            return true;
+        }
+    }
+
+    public void invalidate() {
+        synchronized (lock) {
+            generation++;
+            inFlight = false;
+        }
+    }
+
+    public boolean isInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public long getStartedCount() {
+        return startedCount.get();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    public long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
+    public long getAppliedCount() {
+        return appliedCount.get();
+    }
+
+    public long getTimedOutCount() {
+        return timedOutCount.get();
+    }
+}
@@ -0,0 +1,32 @@
+package pl.nop.aiplayers.ai;
+
+import java.util.function.Supplier;
+
+public final class Lazy<T> implements Supplier<T> {
+
+    private Supplier<T> source;
+    private volatile T value;
+
+    private Lazy(Supplier<T> source) {
+        this.source = source;
+    }
+
+    public static <T> Lazy<T> of(Supplier<T> source) {
+        return new Lazy<>(source);
+    }
+
+    @Override
+    public T get() {
+        T current = value;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (value == null) {
+                value = source.get();
+                source = null;
+            }
+            return value;
+        }
+    }
+}
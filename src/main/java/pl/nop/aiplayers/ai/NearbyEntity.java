@@ -0,0 +1,24 @@
+package pl.nop.aiplayers.ai;
+
+public final class NearbyEntity {
+
+    private final String name;
+    private final double distanceSquared;
+
+    public NearbyEntity(String name, double distanceSquared) {
+        this.name = name;
+        this.distanceSquared = distanceSquared;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getDistanceSquared() {
+        return distanceSquared;
+    }
+
+    public double getDistance() {
+        return Math.sqrt(distanceSquared);
+    }
+}
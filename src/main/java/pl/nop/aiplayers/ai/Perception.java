@@ -4,31 +4,36 @@ import org.bukkit.Location;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 public class Perception {
     private final String name;
     private final UUID uuid;
     private final String world;
-    private final Location location;
-    private final List<String> nearbyPlayers;
-    private final List<String> nearbyAIPlayers;
+    private final Lazy<Location> location;
+    private final Lazy<List<NearbyEntity>> nearbyPlayers;
+    private final Lazy<List<NearbyEntity>> nearbyAIPlayers;
     private final double balance;
-    private final List<String> inventorySummary;
-    private final List<String> chatHistory;
+    private final Supplier<List<String>> inventorySummary;
+    private final ChatView chat;
     private final long serverTimeTicks;
+    private final int onlinePlayers;
 
-    public Perception(String name, UUID uuid, String world, Location location, List<String> nearbyPlayers, List<String> nearbyAIPlayers,
-                      double balance, List<String> inventorySummary, List<String> chatHistory, long serverTimeTicks) {
+    public Perception(String name, UUID uuid, String world, Supplier<Location> location,
+                      Supplier<List<NearbyEntity>> nearbyPlayers, Supplier<List<NearbyEntity>> nearbyAIPlayers,
+                      double balance, Supplier<List<String>> inventorySummary, ChatView chat, long serverTimeTicks,
+                      int onlinePlayers) {
         this.name = name;
         this.uuid = uuid;
         this.world = world;
-        this.location = location;
-        this.nearbyPlayers = nearbyPlayers;
-        this.nearbyAIPlayers = nearbyAIPlayers;
+        this.location = Lazy.of(location);
+        this.nearbyPlayers = Lazy.of(nearbyPlayers);
+        this.nearbyAIPlayers = Lazy.of(nearbyAIPlayers);
         this.balance = balance;
         this.inventorySummary = inventorySummary;
-        this.chatHistory = chatHistory;
+        this.chat = chat;
         this.serverTimeTicks = serverTimeTicks;
+        this.onlinePlayers = onlinePlayers;
     }
 
     public String getName() {
@@ -44,15 +49,15 @@ public class Perception {
     }
 
     public Location getLocation() {
-        return location;
+        return location.get().clone();
     }
 
-    public List<String> getNearbyPlayers() {
-        return nearbyPlayers;
+    public List<NearbyEntity> getNearbyPlayers() {
+        return nearbyPlayers.get();
     }
 
-    public List<String> getNearbyAIPlayers() {
-        return nearbyAIPlayers;
+    public List<NearbyEntity> getNearbyAIPlayers() {
+        return nearbyAIPlayers.get();
     }
 
     public double getBalance() {
@@ -60,14 +65,18 @@ public class Perception {
     }
 
     public List<String> getInventorySummary() {
-        return inventorySummary;
+        return inventorySummary.get();
     }
 
-    public List<String> getChatHistory() {
-        return chatHistory;
+    public ChatView getChat() {
+        return chat;
     }
 
     public long getServerTimeTicks() {
         return serverTimeTicks;
     }
+
+    public int getOnlinePlayers() {
+        return onlinePlayers;
+    }
 }
@@ -2,10 +2,17 @@ package pl.nop.aiplayers.ai.controller;
 
 import pl.nop.aiplayers.ai.Action;
 import pl.nop.aiplayers.ai.Perception;
+import pl.nop.aiplayers.ai.trigger.TriggerType;
 import pl.nop.aiplayers.model.AIPlayerSession;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 public interface AIController {
     CompletableFuture<Action> decide(AIPlayerSession session, Perception perception);
+
+    default Set<TriggerType> getTriggers() {
+        return EnumSet.allOf(TriggerType.class);
+    }
 }
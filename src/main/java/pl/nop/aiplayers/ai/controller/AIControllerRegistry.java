@@ -8,6 +8,11 @@ import java.util.Map;
 public class AIControllerRegistry {
 
     private final Map<AIControllerType, AIController> controllers = new EnumMap<>(AIControllerType.class);
+    private final ControllerExecutor executor;
+
+    public AIControllerRegistry(ControllerExecutor executor) {
+        this.executor = executor;
+    }
 
     public void registerDefaults(DummyAIController dummy) {
         controllers.put(AIControllerType.DUMMY, dummy);
@@ -20,4 +25,12 @@ public class AIControllerRegistry {
     public AIController getController(AIControllerType type) {
         return controllers.getOrDefault(type, controllers.get(AIControllerType.DUMMY));
     }
+
+    public ControllerExecutor getExecutor() {
+        return executor;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
 }
@@ -0,0 +1,379 @@
+package pl.nop.aiplayers.ai.controller;
+
+import org.bukkit.plugin.Plugin;
+import pl.nop.aiplayers.AIPlayersPlugin;
+import pl.nop.aiplayers.logging.AIPlayersFileLogger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class ControllerExecutor {
+
+    private static final long SATURATION_LOG_INTERVAL_MILLIS = 30000L;
+
+    private final Plugin plugin;
+    private final ScheduledExecutorService timer;
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong discardedOldestCount = new AtomicLong();
+    private final AtomicLong callerRunsCount = new AtomicLong();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final AtomicLong lastSaturationLogAt = new AtomicLong();
+    private volatile Delegate delegate;
+
+    public ControllerExecutor(Plugin plugin, ControllerExecutorConfig config) {
+        this.plugin = plugin;
+        this.timer = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("AIPlayers-Controller-Timer"));
+        this.delegate = createDelegate(config);
+    }
+
+    public void updateConfig(ControllerExecutorConfig config) {
+        Delegate previous = delegate;
+        delegate = createDelegate(config);
+        previous.shutdown();
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task, T fallback) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        submittedCount.incrementAndGet();
+        delegate.submit(new ControllerTask<>(task, fallback, result));
+        return result;
+    }
+
+    public <T> CompletableFuture<T> supplyDelayed(Supplier<T> task, T fallback, long delayMillis) {
+        if (delayMillis <= 0) {
+            return supply(task, fallback);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            timer.schedule(() -> supply(task, fallback).whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(value);
+                }
+            }), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            result.complete(fallback);
+        }
+        return result;
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+        delegate.shutdown();
+    }
+
+    public ControllerExecutorConfig.Mode getMode() {
+        return delegate.mode();
+    }
+
+    public int getActiveCount() {
+        return delegate.activeCount();
+    }
+
+    public int getQueueDepth() {
+        return delegate.queueDepth();
+    }
+
+    public int getQueueCapacity() {
+        return delegate.queueCapacity();
+    }
+
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getDiscardedOldestCount() {
+        return discardedOldestCount.get();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRunsCount.get();
+    }
+
+    private Delegate createDelegate(ControllerExecutorConfig config) {
+        if (config.getInvalidMode() != null) {
+            plugin.getLogger().warning("Unknown ai.executor.mode: " + config.getInvalidMode() + ", defaulting to PLATFORM.");
+        }
+        if (config.getInvalidRejectionPolicy() != null) {
+            plugin.getLogger().warning("Unknown ai.executor.rejection-policy: " + config.getInvalidRejectionPolicy()
+                    + ", defaulting to DISCARD.");
+        }
+        if (config.getMode() == ControllerExecutorConfig.Mode.VIRTUAL) {
+            ExecutorService virtual = createVirtualThreadExecutor();
+            if (virtual != null) {
+                logInfo("Controller executor using virtual threads (max in flight " + config.getQueueCapacity() + ").");
+                return new VirtualDelegate(virtual, config);
+            }
+            plugin.getLogger().warning("Virtual threads are not available on this JVM; falling back to PLATFORM controller executor.");
+        }
+        logInfo("Controller executor using " + config.getThreads() + " platform thread(s), queue capacity "
+                + config.getQueueCapacity() + ", rejection policy " + config.getRejectionPolicy() + ".");
+        return new PlatformDelegate(config);
+    }
+
+    private ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    private void recordQueueDepth(int depth) {
+        peakQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    private void onRejected(String detail) {
+        rejectedCount.incrementAndGet();
+        long now = System.currentTimeMillis();
+        long last = lastSaturationLogAt.get();
+        if (now - last > SATURATION_LOG_INTERVAL_MILLIS && lastSaturationLogAt.compareAndSet(last, now)) {
+            String message = "Controller executor saturated (" + detail + "); rejected " + rejectedCount.get()
+                    + " task(s) so far.";
+            plugin.getLogger().warning(message);
+            AIPlayersFileLogger fileLogger = getFileLogger();
+            if (fileLogger != null) {
+                fileLogger.warn(message);
+            }
+        }
+    }
+
+    private void logInfo(String message) {
+        AIPlayersFileLogger fileLogger = getFileLogger();
+        if (fileLogger != null) {
+            fileLogger.info(message);
+        }
+    }
+
+    private AIPlayersFileLogger getFileLogger() {
+        if (plugin instanceof AIPlayersPlugin) {
+            return ((AIPlayersPlugin) plugin).getFileLogger();
+        }
+        return null;
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private interface Delegate {
+        void submit(ControllerTask<?> task);
+
+        void shutdown();
+
+        ControllerExecutorConfig.Mode mode();
+
+        int activeCount();
+
+        int queueDepth();
+
+        int queueCapacity();
+    }
+
+    private final class PlatformDelegate implements Delegate {
+        private final ThreadPoolExecutor pool;
+        private final BlockingQueue<Runnable> queue;
+        private final ControllerExecutorConfig.RejectionPolicy policy;
+        private final int capacity;
+
+        private PlatformDelegate(ControllerExecutorConfig config) {
+            this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+            this.policy = config.getRejectionPolicy();
+            this.capacity = config.getQueueCapacity();
+            this.pool = new ThreadPoolExecutor(config.getThreads(), config.getThreads(), 60L, TimeUnit.SECONDS, queue,
+                    namedThreadFactory("AIPlayers-Controller"), (runnable, executor) -> reject((ControllerTask<?>) runnable));
+        }
+
+        @Override
+        public void submit(ControllerTask<?> task) {
+            pool.execute(task);
+            recordQueueDepth(queue.size());
+        }
+
+        private void reject(ControllerTask<?> task) {
+            if (pool.isShutdown()) {
+                task.drop();
+                return;
+            }
+            switch (policy) {
+                case CALLER_RUNS:
+                    callerRunsCount.incrementAndGet();
+                    onRejected("running on caller thread");
+                    task.run();
+                    break;
+                case DISCARD_OLDEST:
+                    Runnable oldest = queue.poll();
+                    if (oldest instanceof ControllerTask) {
+                        discardedOldestCount.incrementAndGet();
+                        ((ControllerTask<?>) oldest).drop();
+                    }
+                    onRejected("discarded oldest queued decision");
+                    if (!queue.offer(task)) {
+                        task.drop();
+                    }
+                    break;
+                case DISCARD:
+                default:
+                    onRejected("queue full at " + capacity);
+                    task.drop();
+                    break;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            pool.shutdown();
+        }
+
+        @Override
+        public ControllerExecutorConfig.Mode mode() {
+            return ControllerExecutorConfig.Mode.PLATFORM;
+        }
+
+        @Override
+        public int activeCount() {
+            return pool.getActiveCount();
+        }
+
+        @Override
+        public int queueDepth() {
+            return queue.size();
+        }
+
+        @Override
+        public int queueCapacity() {
+            return capacity;
+        }
+    }
+
+    private final class VirtualDelegate implements Delegate {
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        private final ControllerExecutorConfig.RejectionPolicy policy;
+        private final int capacity;
+
+        private VirtualDelegate(ExecutorService executor, ControllerExecutorConfig config) {
+            this.executor = executor;
+            this.capacity = config.getQueueCapacity();
+            this.permits = new Semaphore(capacity);
+            this.policy = config.getRejectionPolicy();
+        }
+
+        @Override
+        public void submit(ControllerTask<?> task) {
+            if (!permits.tryAcquire()) {
+                if (policy == ControllerExecutorConfig.RejectionPolicy.CALLER_RUNS) {
+                    callerRunsCount.incrementAndGet();
+                    onRejected("running on caller thread");
+                    task.run();
+                } else {
+                    onRejected("max in flight " + capacity + " reached");
+                    task.drop();
+                }
+                return;
+            }
+            recordQueueDepth(capacity - permits.availablePermits());
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                permits.release();
+                task.drop();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public ControllerExecutorConfig.Mode mode() {
+            return ControllerExecutorConfig.Mode.VIRTUAL;
+        }
+
+        @Override
+        public int activeCount() {
+            return capacity - permits.availablePermits();
+        }
+
+        @Override
+        public int queueDepth() {
+            return capacity - permits.availablePermits();
+        }
+
+        @Override
+        public int queueCapacity() {
+            return capacity;
+        }
+    }
+
+    private final class ControllerTask<T> implements Runnable {
+        private final Supplier<T> task;
+        private final T fallback;
+        private final CompletableFuture<T> result;
+
+        private ControllerTask(Supplier<T> task, T fallback, CompletableFuture<T> result) {
+            this.task = task;
+            this.fallback = fallback;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(task.get());
+            } catch (Throwable throwable) {
+                result.completeExceptionally(throwable);
+            } finally {
+                completedCount.incrementAndGet();
+            }
+        }
+
+        private void drop() {
+            result.complete(fallback);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package pl.nop.aiplayers.ai.controller;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+public class ControllerExecutorConfig {
+
+    private final Mode mode;
+    private final int threads;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final String invalidMode;
+    private final String invalidRejectionPolicy;
+
+    public ControllerExecutorConfig(FileConfiguration config) {
+        String configuredMode = config.getString("ai.executor.mode", "PLATFORM");
+        Mode parsedMode = parseMode(configuredMode);
+        this.mode = parsedMode == null ? Mode.PLATFORM : parsedMode;
+        this.invalidMode = parsedMode == null ? configuredMode : null;
+        this.threads = Math.max(1, config.getInt("ai.executor.threads", 2));
+        this.queueCapacity = Math.max(1, config.getInt("ai.executor.queue-capacity", 256));
+        String configuredPolicy = config.getString("ai.executor.rejection-policy", "DISCARD");
+        RejectionPolicy parsedPolicy = parseRejectionPolicy(configuredPolicy);
+        this.rejectionPolicy = parsedPolicy == null ? RejectionPolicy.DISCARD : parsedPolicy;
+        this.invalidRejectionPolicy = parsedPolicy == null ? configuredPolicy : null;
+    }
+
+    private Mode parseMode(String value) {
+        if (value == null) {
+            return Mode.PLATFORM;
+        }
+        try {
+            return Mode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private RejectionPolicy parseRejectionPolicy(String value) {
+        if (value == null) {
+            return RejectionPolicy.DISCARD;
+        }
+        try {
+            return RejectionPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    public String getInvalidMode() {
+        return invalidMode;
+    }
+
+    public String getInvalidRejectionPolicy() {
+        return invalidRejectionPolicy;
+    }
+
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    public enum RejectionPolicy {
+        DISCARD,
+        DISCARD_OLDEST,
+        CALLER_RUNS
+    }
+}
@@ -2,7 +2,12 @@ package pl.nop.aiplayers.ai.controller;
 
 import org.bukkit.Location;
 import pl.nop.aiplayers.ai.Action;
+import pl.nop.aiplayers.ai.ChatView;
 import pl.nop.aiplayers.ai.Perception;
+import pl.nop.aiplayers.ai.trigger.TriggerType;
+import pl.nop.aiplayers.chat.AIChatService;
+import pl.nop.aiplayers.load.LoadGovernor;
+import pl.nop.aiplayers.load.SheddableWork;
 import pl.nop.aiplayers.model.AIPlayerSession;
 
 import java.util.ArrayDeque;
@@ -20,9 +25,13 @@ public class DummyAIController implements AIController {
     private final double stepSize;
     private final double lookChance;
     private final double chatReplyChance;
+    private final LoadGovernor loadGovernor;
+    private final ControllerExecutor executor;
 
-    public DummyAIController(int chatMemorySize) {
+    public DummyAIController(int chatMemorySize, LoadGovernor loadGovernor, ControllerExecutor executor) {
         this.chatMemorySize = Math.max(chatMemorySize, 1);
+        this.loadGovernor = loadGovernor;
+        this.executor = executor;
         this.stepSize = 0.65;
         this.lookChance = 0.25;
         this.chatReplyChance = 0.35;
@@ -30,18 +39,22 @@ public class DummyAIController implements AIController {
 
     @Override
     public CompletableFuture<Action> decide(AIPlayerSession session, Perception perception) {
-        return CompletableFuture.supplyAsync(() -> decideSync(session, perception));
+        return executor.supply(() -> decideSync(session, perception), Action.idle());
     }
 
     private Action decideSync(AIPlayerSession session, Perception perception) {
-        ChatLine newestIncoming = updateChatMemory(session, perception.getChatHistory(), perception.getName());
-        if (newestIncoming != null && shouldReply(session, newestIncoming)) {
+        ChatLine newestIncoming = updateChatMemory(session, perception.getChat(), perception.getName());
+        if (newestIncoming != null && loadGovernor.isAllowed(SheddableWork.CHAT_REPLY)
+                && shouldReply(session, newestIncoming)) {
             String reply = buildReply(session, newestIncoming);
             if (reply != null && !reply.isBlank()) {
-                session.getRuntimeMemory().put("lastRespondedLine", newestIncoming.rawLine);
+                session.getRuntimeMemory().put("lastRespondedSequence", newestIncoming.sequence);
                 return Action.say(reply);
             }
         }
+        if (!loadGovernor.isAllowed(SheddableWork.WANDER)) {
+            return Action.idle();
+        }
         if (random.nextDouble() < lookChance) {
             Location lookTarget = randomLookTarget(session, perception.getLocation());
             if (lookTarget != null) {
@@ -55,20 +68,15 @@ public class DummyAIController implements AIController {
         return Action.idle();
     }
 
-    private ChatLine updateChatMemory(AIPlayerSession session, List<String> history, String selfName) {
-        if (history == null || history.isEmpty()) {
+    private ChatLine updateChatMemory(AIPlayerSession session, ChatView chat, String selfName) {
+        if (chat == null || chat.isEmpty()) {
             return null;
         }
-        Object lastSeenObj = session.getRuntimeMemory().get("lastChatLine");
-        String lastSeen = lastSeenObj instanceof String ? (String) lastSeenObj : null;
-        int startIndex = 0;
-        if (lastSeen != null) {
-            int idx = history.lastIndexOf(lastSeen);
-            if (idx >= 0) {
-                startIndex = idx + 1;
-            } else {
-                startIndex = Math.max(0, history.size() - chatMemorySize);
-            }
+        Object lastSeenObj = session.getRuntimeMemory().get("lastChatSequence");
+        long lastSeen = lastSeenObj instanceof Long ? (Long) lastSeenObj : 0L;
+        List<AIChatService.ChatEntry> unseen = chat.since(lastSeen);
+        if (unseen.isEmpty()) {
+            return null;
         }
         @SuppressWarnings("unchecked")
         Deque<ChatLine> memory = (Deque<ChatLine>) session.getRuntimeMemory()
@@ -77,33 +85,29 @@ public class DummyAIController implements AIController {
         Map<String, String> lastBySpeaker = (Map<String, String>) session.getRuntimeMemory()
                 .computeIfAbsent("lastMessageBySpeaker", key -> new LinkedHashMap<>());
         ChatLine newest = null;
-        for (int i = startIndex; i < history.size(); i++) {
-            String line = history.get(i);
-            ChatLine parsed = parseLine(line);
-            if (parsed == null) {
+        for (AIChatService.ChatEntry entry : unseen) {
+            if (entry.getMessage().isEmpty() || entry.getSender().equalsIgnoreCase(selfName)) {
                 continue;
             }
-            if (parsed.speaker.equalsIgnoreCase(selfName)) {
-                continue;
-            }
-            memory.addLast(parsed);
+            ChatLine line = new ChatLine(entry.getSequence(), entry.getSender(), entry.getMessage());
+            memory.addLast(line);
             if (memory.size() > chatMemorySize) {
                 memory.removeFirst();
             }
-            lastBySpeaker.put(parsed.speaker, parsed.message);
+            lastBySpeaker.put(line.speaker, line.message);
             if (lastBySpeaker.size() > chatMemorySize) {
                 String oldest = lastBySpeaker.keySet().iterator().next();
                 lastBySpeaker.remove(oldest);
             }
-            newest = parsed;
+            newest = line;
         }
-        session.getRuntimeMemory().put("lastChatLine", history.get(history.size() - 1));
+        session.getRuntimeMemory().put("lastChatSequence", chat.getLatestSequence());
         return newest;
     }
 
     private boolean shouldReply(AIPlayerSession session, ChatLine line) {
-        String lastResponded = (String) session.getRuntimeMemory().get("lastRespondedLine");
-        if (line.rawLine.equals(lastResponded)) {
+        Object lastResponded = session.getRuntimeMemory().get("lastRespondedSequence");
+        if (lastResponded instanceof Long && (Long) lastResponded == line.sequence) {
             return false;
         }
         String name = session.getProfile().getName();
@@ -201,6 +205,7 @@ public class DummyAIController implements AIController {
         double distance = target.distance(current);
         if (distance <= stepSize) {
             session.getRuntimeMemory().remove("wanderTarget");
+            session.raiseTrigger(TriggerType.WANDER_TARGET_REACHED);
             return target;
         }
         Location step = current.clone();
@@ -239,22 +244,6 @@ public class DummyAIController implements AIController {
         return target;
     }
 
-    private ChatLine parseLine(String line) {
-        if (line == null) {
-            return null;
-        }
-        int idx = line.indexOf(":");
-        if (idx <= 0 || idx >= line.length() - 1) {
-            return null;
-        }
-        String speaker = line.substring(0, idx).trim();
-        String message = line.substring(idx + 1).trim();
-        if (speaker.isEmpty() || message.isEmpty()) {
-            return null;
-        }
-        return new ChatLine(line, speaker, message);
-    }
-
     private String shorten(String message, int limit) {
         if (message == null) {
             return "";
@@ -266,12 +255,12 @@ public class DummyAIController implements AIController {
     }
 
     private static class ChatLine {
-        private final String rawLine;
+        private final long sequence;
         private final String speaker;
         private final String message;
 
-        private ChatLine(String rawLine, String speaker, String message) {
-            this.rawLine = rawLine;
+        private ChatLine(long sequence, String speaker, String message) {
+            this.sequence = sequence;
             this.speaker = speaker;
             this.message = message;
         }
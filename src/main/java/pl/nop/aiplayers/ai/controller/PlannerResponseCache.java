@@ -0,0 +1,181 @@
+package pl.nop.aiplayers.ai.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PlannerResponseCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final boolean variation;
+    private final LinkedHashMap<String, CachedReply> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public PlannerResponseCache(boolean enabled, int maxEntries, long ttlMillis, boolean variation) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.variation = variation;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedReply> eldest) {
+                if (size() > PlannerResponseCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static String key(List<String> chatMessages, String personaSignature) {
+        StringBuilder normalized = new StringBuilder(personaSignature == null ? "" : personaSignature);
+        for (String message : chatMessages) {
+            normalized.append('\n').append(normalize(message));
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            return normalized.toString();
+        }
+    }
+
+    static String normalize(String message) {
+        if (message == null) {
+            return "";
+        }
+        String lower = message.toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(lower.length());
+        boolean space = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CachedReply lookup(String key, long chatSequence, long nowMillis) {
+        CachedReply reply;
+        synchronized (entries) {
+            reply = entries.get(key);
+            if (reply != null && nowMillis - reply.storedAtMillis > ttlMillis) {
+                entries.remove(key);
+                expirations.increment();
+                reply = null;
+            }
+            if (reply != null && reply.chatSequence == chatSequence) {
+                reply = null;
+            } else if (reply != null) {
+                reply = new CachedReply(reply.message, reply.sendAfterMs, reply.storedAtMillis, chatSequence);
+                entries.put(key, reply);
+            }
+        }
+        if (reply == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return variation ? vary(reply) : reply;
+    }
+
+    public void store(String key, String message, long sendAfterMs, long chatSequence, long nowMillis) {
+        if (message == null || message.isBlank()) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new CachedReply(message, sendAfterMs, nowMillis, chatSequence));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    private CachedReply vary(CachedReply reply) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String message = reply.message;
+        if (random.nextBoolean() && message.length() > 1 && Character.isUpperCase(message.charAt(0))) {
+            message = Character.toLowerCase(message.charAt(0)) + message.substring(1);
+        }
+        if (random.nextBoolean() && (message.endsWith(".") || message.endsWith("!")) && !message.endsWith("..")) {
+            message = message.substring(0, message.length() - 1);
+        }
+        long delay = Math.max(0L, Math.round(reply.sendAfterMs * (0.8 + random.nextDouble() * 0.4)));
+        return new CachedReply(message, delay, reply.storedAtMillis, reply.chatSequence);
+    }
+
+    public static final class CachedReply {
+        private final String message;
+        private final long sendAfterMs;
+        private final long storedAtMillis;
+        private final long chatSequence;
+
+        private CachedReply(String message, long sendAfterMs, long storedAtMillis, long chatSequence) {
+            this.message = message;
+            this.sendAfterMs = sendAfterMs;
+            this.storedAtMillis = storedAtMillis;
+            this.chatSequence = chatSequence;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public long getSendAfterMs() {
+            return sendAfterMs;
+        }
+    }
+}
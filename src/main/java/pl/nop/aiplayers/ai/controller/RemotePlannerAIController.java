@@ -1,36 +1,37 @@
 package pl.nop.aiplayers.ai.controller;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.annotations.SerializedName;
-import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
 import pl.nop.aiplayers.AIPlayersPlugin;
 import pl.nop.aiplayers.ai.Action;
+import pl.nop.aiplayers.ai.ActionType;
 import pl.nop.aiplayers.ai.Perception;
+import pl.nop.aiplayers.ai.trigger.TriggerType;
 import pl.nop.aiplayers.chat.AIChatService;
+import pl.nop.aiplayers.load.LoadGovernor;
+import pl.nop.aiplayers.load.SheddableWork;
 import pl.nop.aiplayers.logging.AIPlayersFileLogger;
 import pl.nop.aiplayers.manager.AIPlayerManager;
 import pl.nop.aiplayers.model.AIPlayerProfile;
 import pl.nop.aiplayers.model.AIPlayerSession;
+import pl.nop.aiplayers.planner.PlannerTransport;
+import pl.nop.aiplayers.task.WorldSnapshot;
+import pl.nop.aiplayers.task.WorldSnapshotBuffer;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CompletionException;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 public class RemotePlannerAIController implements AIController {
 
@@ -38,87 +39,195 @@ public class RemotePlannerAIController implements AIController {
     private final AIChatService chatService;
     private final AIPlayerManager manager;
     private final Gson gson;
-    private final HttpClient httpClient;
+    private final PlannerTransport transport;
+    private final PlannerResponseCache responseCache;
     private final RemotePlannerConfig config;
+    private final LoadGovernor loadGovernor;
+    private final ControllerExecutor executor;
+    private final WorldSnapshotBuffer snapshots;
     private final ConcurrentHashMap<UUID, Long> lastRequestMillis;
     private final Object responderLock = new Object();
     private volatile long responderSequence = -1L;
     private volatile Set<UUID> responders = Collections.emptySet();
-
-    public RemotePlannerAIController(Plugin plugin, AIChatService chatService, AIPlayerManager manager, RemotePlannerConfig config) {
+    private List<AIPlayerSession> responderSessions = Collections.emptyList();
+    private final Set<UUID> cacheServed = new HashSet<>();
+    private PlannerBatch currentBatch;
+    private volatile int burstLines;
+
+    public RemotePlannerAIController(Plugin plugin, AIChatService chatService, AIPlayerManager manager, RemotePlannerConfig config,
+                                     LoadGovernor loadGovernor, ControllerExecutor executor, PlannerTransport transport,
+                                     WorldSnapshotBuffer snapshots) {
         this.plugin = plugin;
         this.chatService = chatService;
         this.manager = manager;
         this.config = config;
+        this.loadGovernor = loadGovernor;
+        this.executor = executor;
+        this.snapshots = snapshots;
         this.gson = new Gson();
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(config.getConnectTimeout())
-                .build();
+        this.transport = transport;
+        this.responseCache = new PlannerResponseCache(config.isCacheEnabled(), config.getCacheMaxEntries(),
+                config.getCacheTtlMillis(), config.isCacheVariation());
         this.lastRequestMillis = new ConcurrentHashMap<>();
     }
 
+    @Override
+    public Set<TriggerType> getTriggers() {
+        return EnumSet.of(TriggerType.PLAYER_CHAT);
+    }
+
     @Override
     public CompletableFuture<Action> decide(AIPlayerSession session, Perception perception) {
         if (!config.isEnabled()) {
             return CompletableFuture.completedFuture(Action.idle());
         }
-        if (!shouldSendRequest(session)) {
+        if (!shouldSendRequest(session, perception)) {
+            return CompletableFuture.completedFuture(Action.idle());
+        }
+        long chatSequence = responderSequence;
+        String cacheKey = responseCache.isEnabled() ? cacheKey(session, perception) : null;
+        if (cacheKey != null) {
+            PlannerResponseCache.CachedReply cached = responseCache.lookup(cacheKey, chatSequence, System.currentTimeMillis());
+            if (cached != null) {
+                markCacheServed(session, chatSequence);
+                logToFile("Planner cache hit for bot " + session.getProfile().getName() + ": '" + cached.getMessage() + "'");
+                PlannedAction planned = new PlannedAction();
+                planned.botId = session.getProfile().getUuid().toString();
+                planned.message = cached.getMessage();
+                planned.sendAfterMs = cached.getSendAfterMs();
+                return toActionFuture(session, planned);
+            }
+        }
+        if (!loadGovernor.isAllowed(SheddableWork.PLANNER)) {
+            logToFile("Planner request shed under server load for bot " + session.getProfile().getName());
             return CompletableFuture.completedFuture(Action.idle());
         }
-        PlannerRequest request = buildRequest(session, perception);
-        if (request == null) {
+        if (config.getTransport() == RemotePlannerConfig.Transport.HTTP && !config.hasEndpoints()) {
             logToFile("Planner request skipped: missing base URL for bot " + session.getProfile().getName());
             return CompletableFuture.completedFuture(Action.idle());
         }
-        String payload = gson.toJson(request);
-        String targetUrl = config.getBaseUrl() + config.getPlanPath();
-        long startMillis = System.currentTimeMillis();
-        plugin.getLogger().info("Sending chat request to the server " + targetUrl + " for AIPlayer " + session.getProfile().getName());
-        logToFile("Sending planner request " + request.requestId + " to " + targetUrl
-                + " for bot=" + session.getProfile().getName()
-                + ", chatLines=" + (request.chat == null ? 0 : request.chat.size()));
-        logToFile("Planner request " + request.requestId + " payload: " + payload);
-        logToFile("Planner request " + request.requestId + " timeouts: connect="
-                + config.getConnectTimeout().toMillis() + "ms, request=" + config.getRequestTimeout().toMillis() + "ms");
-        HttpRequest httpRequest = HttpRequest.newBuilder()
-                .uri(URI.create(targetUrl))
-                .timeout(config.getRequestTimeout())
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
-                .build();
-        logToFile("Planner request " + request.requestId + " headers: Content-Type=application/json");
-
-        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    long durationMillis = System.currentTimeMillis() - startMillis;
-                    if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                        plugin.getLogger().warning("Planner API responded with status " + response.statusCode());
-                        logToFile("Planner API responded with status " + response.statusCode()
-                                + " for request " + request.requestId
-                                + ", durationMs=" + durationMillis);
-                        logToFile("Planner response " + request.requestId + " payload: " + response.body());
-                        return null;
+        PlanResult plan;
+        if (config.isBatchResponders()) {
+            plan = joinBatch(session, perception);
+        } else {
+            plan = sendPlan(buildRequest(Collections.singletonList(session), perception), session.getProfile().getName());
+        }
+        return plan.actionFor(session.getProfile().getUuid().toString())
+                .thenCompose(planned -> {
+                    if (cacheKey != null && planned != null && planned.message != null) {
+                        String cleaned = stripBotPrefix(planned.message, session.getProfile().getName());
+                        responseCache.store(cacheKey, cleaned, planned.sendAfterMs, chatSequence, System.currentTimeMillis());
                     }
-                    logToFile("Planner API responded with status " + response.statusCode()
-                            + " for request " + request.requestId
-                            + ", durationMs=" + durationMillis
-                            + ", payloadLength=" + response.body().length());
-                    logToFile("Planner response " + request.requestId + " payload: " + response.body());
-                    return gson.fromJson(response.body(), PlannerResponse.class);
-                })
-                .thenCompose(response -> toActionFuture(session, response))
-                .exceptionally(ex -> {
-                    String details = describeException(ex);
-                    long durationMillis = System.currentTimeMillis() - startMillis;
-                    String message = "Planner API request failed after " + durationMillis + "ms to " + targetUrl
-                            + " for request " + request.requestId + ": " + details;
-                    plugin.getLogger().warning(message);
-                    logToFile(message);
-                    return Action.idle();
+                    return toActionFuture(session, planned);
                 });
     }
 
-    private boolean shouldSendRequest(AIPlayerSession session) {
+    public PlannerResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    private String cacheKey(AIPlayerSession session, Perception perception) {
+        List<AIChatService.ChatEntry> entries = perception.getChat().getEntries();
+        List<String> window = new ArrayList<>();
+        int keyLines = Math.max(config.getCacheKeyLines(), burstLines);
+        for (int i = entries.size() - 1; i >= 0 && window.size() < keyLines; i--) {
+            AIChatService.ChatEntry entry = entries.get(i);
+            if (entry.getSenderType() == AIChatService.ChatSenderType.PLAYER) {
+                window.add(entry.getSender() + ": " + entry.getMessage());
+            }
+        }
+        if (window.isEmpty()) {
+            return null;
+        }
+        Collections.reverse(window);
+        Persona persona = buildPersona(session.getProfile(), detectLanguage(entries));
+        String signature = persona.language + "|" + persona.tone + "|" + persona.styleTags + "|" + persona.avoidTopics
+                + "|" + persona.knowledgeLevel;
+        return PlannerResponseCache.key(window, signature);
+    }
+
+    private PlanResult joinBatch(AIPlayerSession session, Perception perception) {
+        synchronized (responderLock) {
+            PlannerBatch batch = currentBatch;
+            if (batch != null && batch.sequence == responderSequence) {
+                logToFile("Planner batch " + batch.requestId + " reused for bot " + session.getProfile().getName());
+                return batch.plan;
+            }
+            List<AIPlayerSession> batchBots = new ArrayList<>(responderSessions);
+            batchBots.removeIf(candidate -> cacheServed.contains(candidate.getProfile().getUuid()));
+            if (batchBots.stream().noneMatch(candidate -> candidate == session)) {
+                batchBots.add(session);
+            }
+            PlannerRequest request = buildRequest(batchBots, perception);
+            String names = batchBots.stream().map(bot -> bot.getProfile().getName()).collect(Collectors.joining(","));
+            PlannerBatch created = new PlannerBatch(responderSequence, request.requestId, sendPlan(request, names));
+            currentBatch = created;
+            return created.plan;
+        }
+    }
+
+    private void markCacheServed(AIPlayerSession session, long chatSequence) {
+        synchronized (responderLock) {
+            if (chatSequence == responderSequence) {
+                cacheServed.add(session.getProfile().getUuid());
+            }
+        }
+    }
+
+    private PlanResult sendPlan(PlannerRequest request, String botNames) {
+        PlanResult plan = new PlanResult();
+        String payload = gson.toJson(request);
+        plugin.getLogger().info("Sending chat request to the server " + transport.describe() + " for AIPlayer " + botNames);
+        logToFile("Sending planner request " + request.requestId + " to " + transport.describe()
+                + " for bot=" + botNames
+                + ", chatLines=" + (request.chat == null ? 0 : request.chat.size()));
+        transport.send("Planner", request.requestId, payload, json -> offerAction(plan, request.requestId, json))
+                .whenComplete((success, ex) -> plan.finish());
+        return plan;
+    }
+
+    private void offerAction(PlanResult plan, String requestId, String json) {
+        try {
+            plan.offer(gson.fromJson(json, PlannedAction.class));
+        } catch (JsonParseException ex) {
+            logToFile("Planner response " + requestId + " skipped malformed action: " + ex.getMessage());
+        }
+    }
+
+    public void applyPushedAction(String json) {
+        PlannedAction planned;
+        try {
+            planned = gson.fromJson(json, PlannedAction.class);
+        } catch (JsonParseException ex) {
+            logToFile("Planner push skipped malformed action: " + ex.getMessage());
+            return;
+        }
+        if (planned == null || planned.botId == null || !config.isEnabled()) {
+            return;
+        }
+        UUID botId;
+        try {
+            botId = UUID.fromString(planned.botId);
+        } catch (IllegalArgumentException ex) {
+            logToFile("Planner push ignored: invalid bot id " + planned.botId);
+            return;
+        }
+        AIPlayerSession session = manager.getSessionByUuid(botId);
+        if (session == null) {
+            logToFile("Planner push ignored: unknown bot " + planned.botId);
+            return;
+        }
+        toActionFuture(session, planned).thenAccept(action -> {
+            if (action.getType() != ActionType.SAY || action.getMessage() == null) {
+                return;
+            }
+            if (!session.isDespawned()) {
+                chatService.sendChatMessage(session, action.getMessage());
+            }
+        });
+    }
+
+    private boolean shouldSendRequest(AIPlayerSession session, Perception perception) {
         UUID botId = session.getProfile().getUuid();
         long lastSent = lastRequestMillis.getOrDefault(botId, 0L);
         long lastPlayerChatUpdate = chatService.getLastPlayerChatUpdateMillis();
@@ -126,7 +235,12 @@ public class RemotePlannerAIController implements AIController {
         if (lastPlayerChatUpdate <= 0 || lastPlayerChatUpdate <= lastSent) {
             return false;
         }
-        updateResponders(lastPlayerSequence);
+        if (lastPlayerSequence != responderSequence
+                && !isBurstSettled(perception.getChat().getEntries(), lastPlayerChatUpdate, lastSent)) {
+            session.raiseTrigger(TriggerType.PLAYER_CHAT);
+            return false;
+        }
+        updateResponders(lastPlayerSequence, perception.getChat().getEntries());
         if (!responders.contains(botId)) {
             return false;
         }
@@ -134,15 +248,22 @@ public class RemotePlannerAIController implements AIController {
         return true;
     }
 
-    private CompletableFuture<Action> toActionFuture(AIPlayerSession session, PlannerResponse response) {
-        if (response == null || response.actions == null || response.actions.isEmpty()) {
-            return CompletableFuture.completedFuture(Action.idle());
+    private boolean isBurstSettled(List<AIChatService.ChatEntry> entries, long lastPlayerChatUpdate, long lastSent) {
+        long now = System.currentTimeMillis();
+        if (now - lastPlayerChatUpdate >= config.getBurstDebounceMillis()) {
+            return true;
         }
-        String botId = session.getProfile().getUuid().toString();
-        PlannedAction planned = response.actions.stream()
-                .filter(action -> Objects.equals(botId, action.botId))
-                .findFirst()
-                .orElse(null);
+        long burstStart = lastPlayerChatUpdate;
+        for (AIChatService.ChatEntry entry : entries) {
+            if (entry.getSenderType() == AIChatService.ChatSenderType.PLAYER && entry.getSequence() > responderSequence
+                    && entry.getTimestampMillis() > lastSent) {
+                burstStart = Math.min(burstStart, entry.getTimestampMillis());
+            }
+        }
+        return now - burstStart >= config.getBurstMaxWaitMillis();
+    }
+
+    private CompletableFuture<Action> toActionFuture(AIPlayerSession session, PlannedAction planned) {
         if (planned == null || planned.message == null || planned.message.isBlank()) {
             logToFile("Planner response contained no chat action for bot " + session.getProfile().getName());
             return CompletableFuture.completedFuture(Action.idle());
@@ -160,15 +281,10 @@ public class RemotePlannerAIController implements AIController {
         if (delay <= 0) {
             return CompletableFuture.completedFuture(action);
         }
-        return CompletableFuture.supplyAsync(() -> action,
-                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+        return executor.supplyDelayed(() -> action, Action.idle(), delay);
     }
 
-    private PlannerRequest buildRequest(AIPlayerSession session, Perception perception) {
-        String baseUrl = config.getBaseUrl();
-        if (baseUrl == null || baseUrl.isBlank()) {
-            return null;
-        }
+    private PlannerRequest buildRequest(List<AIPlayerSession> sessions, Perception perception) {
         String requestId = UUID.randomUUID().toString();
         PlannerRequest request = new PlannerRequest();
         request.requestId = requestId;
@@ -177,17 +293,22 @@ public class RemotePlannerAIController implements AIController {
         request.server = new ServerInfo();
         request.server.serverId = config.getServerId();
         request.server.mode = config.getServerMode();
-        request.server.onlinePlayers = Bukkit.getOnlinePlayers().size();
+        request.server.onlinePlayers = perception.getOnlinePlayers();
 
-        List<AIChatService.ChatEntry> chatEntries = chatService.getChatEntriesSnapshot();
+        List<AIChatService.ChatEntry> chatEntries = perception.getChat().getEntries();
 
-        BotInfo bot = new BotInfo();
-        bot.botId = session.getProfile().getUuid().toString();
-        bot.name = session.getProfile().getName();
-        bot.online = session.getNpcHandle().getLocation() != null;
-        bot.cooldownMs = 0;
-        bot.persona = buildPersona(session.getProfile(), detectLanguage(chatEntries));
-        request.bots = Collections.singletonList(bot);
+        String detectedLanguage = detectLanguage(chatEntries);
+        WorldSnapshot snapshot = snapshots.getFront();
+        request.bots = new ArrayList<>();
+        for (AIPlayerSession session : sessions) {
+            BotInfo bot = new BotInfo();
+            bot.botId = session.getProfile().getUuid().toString();
+            bot.name = session.getProfile().getName();
+            bot.online = snapshot.getBot(session.getProfile().getUuid()) != null;
+            bot.cooldownMs = 0;
+            bot.persona = buildPersona(session.getProfile(), detectedLanguage);
+            request.bots.add(bot);
+        }
 
         request.chat = buildChat(chatEntries);
         request.settings = config.getSettings();
@@ -244,7 +365,7 @@ public class RemotePlannerAIController implements AIController {
         if (entries == null || entries.isEmpty()) {
             return Collections.emptyList();
         }
-        int limit = config.getChatLimit();
+        int limit = Math.max(config.getChatLimit(), burstLines);
         List<ChatLine> chatLines = new ArrayList<>();
         for (int i = entries.size() - 1; i >= 0 && chatLines.size() < limit; i--) {
             AIChatService.ChatEntry entry = entries.get(i);
@@ -336,7 +457,7 @@ public class RemotePlannerAIController implements AIController {
                 || text.contains("newbie") || text.contains("learning");
     }
 
-    private void updateResponders(long sequence) {
+    private void updateResponders(long sequence, List<AIChatService.ChatEntry> entries) {
         if (sequence <= 0 || sequence == responderSequence) {
             return;
         }
@@ -344,12 +465,26 @@ public class RemotePlannerAIController implements AIController {
             if (sequence == responderSequence) {
                 return;
             }
-            List<AIPlayerSession> sessions = manager.getAllSessions().stream()
-                    .filter(session -> session.getNpcHandle().getLocation() != null)
-                    .sorted(Comparator.comparing(session -> session.getProfile().getName()))
+            int lines = 0;
+            for (AIChatService.ChatEntry entry : entries) {
+                if (entry.getSenderType() == AIChatService.ChatSenderType.PLAYER && entry.getSequence() > responderSequence
+                        && entry.getSequence() <= sequence) {
+                    lines++;
+                }
+            }
+            burstLines = responderSequence < 0 ? 0 : lines;
+            if (lines > 1) {
+                logToFile("Planner coalesced a burst of " + lines + " player chat line(s) into one request.");
+            }
+            List<AIPlayerSession> sessions = snapshots.getFront().getBots().stream()
+                    .sorted(Comparator.comparing(WorldSnapshot.BotState::getName))
+                    .map(bot -> manager.getSessionByUuid(bot.getUuid()))
+                    .filter(session -> session != null && !session.isDespawned())
                     .toList();
             if (sessions.isEmpty()) {
+                cacheServed.clear();
                 responders = Collections.emptySet();
+                responderSessions = Collections.emptyList();
                 responderSequence = sequence;
                 return;
             }
@@ -357,13 +492,19 @@ public class RemotePlannerAIController implements AIController {
             Collections.shuffle(shuffled, ThreadLocalRandom.current());
             int max = Math.max(1, config.getMaxBotsPerPlayerMessage());
             Set<UUID> selected = new HashSet<>();
+            List<AIPlayerSession> selectedSessions = new ArrayList<>();
             for (AIPlayerSession session : shuffled) {
                 selected.add(session.getProfile().getUuid());
+                selectedSessions.add(session);
                 if (selected.size() >= max) {
                     break;
                 }
             }
+            long now = System.currentTimeMillis();
+            selectedSessions.forEach(session -> session.requestWake(now));
+            cacheServed.clear();
             responders = Collections.unmodifiableSet(selected);
+            responderSessions = selectedSessions;
             responderSequence = sequence;
         }
     }
@@ -382,26 +523,41 @@ public class RemotePlannerAIController implements AIController {
         return null;
     }
 
-    private String describeException(Throwable ex) {
-        Throwable root = ex;
-        if (ex instanceof CompletionException && ex.getCause() != null) {
-            root = ex.getCause();
+    private static final class PlannerBatch {
+        private final long sequence;
+        private final String requestId;
+        private final PlanResult plan;
+
+        private PlannerBatch(long sequence, String requestId, PlanResult plan) {
+            this.sequence = sequence;
+            this.requestId = requestId;
+            this.plan = plan;
         }
-        StringBuilder details = new StringBuilder(root.getClass().getSimpleName());
-        String message = root.getMessage();
-        if (message != null && !message.isBlank()) {
-            details.append(": ").append(message);
+    }
+
+    private static final class PlanResult {
+        private final ConcurrentHashMap<String, CompletableFuture<PlannedAction>> actions = new ConcurrentHashMap<>();
+        private volatile boolean finished;
+
+        private CompletableFuture<PlannedAction> actionFor(String botId) {
+            CompletableFuture<PlannedAction> action = actions.computeIfAbsent(botId, ignored -> new CompletableFuture<>());
+            if (finished) {
+                action.complete(null);
+            }
+            return action;
         }
-        Throwable cause = root.getCause();
-        if (cause != null && cause != root) {
-            details.append(" (cause: ").append(cause.getClass().getSimpleName());
-            String causeMessage = cause.getMessage();
-            if (causeMessage != null && !causeMessage.isBlank()) {
-                details.append(": ").append(causeMessage);
+
+        private void offer(PlannedAction action) {
+            if (action == null || action.botId == null) {
+                return;
             }
-            details.append(")");
+            actions.computeIfAbsent(action.botId, ignored -> new CompletableFuture<>()).complete(action);
+        }
+
+        private void finish() {
+            finished = true;
+            actions.values().forEach(action -> action.complete(null));
         }
-        return details.toString();
     }
 
     private static class PlannerRequest {
@@ -416,12 +572,6 @@ public class RemotePlannerAIController implements AIController {
         private PlannerSettings settings;
     }
 
-    private static class PlannerResponse {
-        @SerializedName("request_id")
-        private String requestId;
-        private List<PlannedAction> actions;
-    }
-
     private static class ServerInfo {
         @SerializedName("server_id")
         private String serverId;
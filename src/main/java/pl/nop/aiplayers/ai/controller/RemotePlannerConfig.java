@@ -3,13 +3,16 @@ package pl.nop.aiplayers.ai.controller;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class RemotePlannerConfig {
 
     private final boolean enabled;
     private final String baseUrl;
+    private final List<Endpoint> endpoints;
     private final String planPath;
     private final Duration connectTimeout;
     private final Duration requestTimeout;
@@ -24,10 +27,22 @@ public class RemotePlannerConfig {
     private final List<String> personaAvoidTopics;
     private final String personaKnowledgeLevel;
     private final int maxBotsPerPlayerMessage;
+    private final boolean batchResponders;
+    private final boolean streaming;
+    private final Transport transport;
+    private final long burstDebounceMillis;
+    private final long burstMaxWaitMillis;
+    private final boolean cacheEnabled;
+    private final int cacheMaxEntries;
+    private final long cacheTtlMillis;
+    private final int cacheKeyLines;
+    private final boolean cacheVariation;
+    private final String invalidTransport;
 
     public RemotePlannerConfig(FileConfiguration config) {
         this.enabled = config.getBoolean("ai.remote.enabled", false);
         this.baseUrl = config.getString("ai.remote.base-url", "");
+        this.endpoints = readEndpoints(config.getMapList("ai.remote.endpoints"), baseUrl);
         this.planPath = config.getString("ai.remote.plan-path", "/v1/plan");
         this.connectTimeout = Duration.ofMillis(config.getLong("ai.remote.connect-timeout-millis", 2000L));
         this.requestTimeout = Duration.ofMillis(config.getLong("ai.remote.request-timeout-millis", 5000L));
@@ -36,6 +51,19 @@ public class RemotePlannerConfig {
         this.chatLimit = Math.max(1, config.getInt("ai.remote.chat-limit", 10));
         this.requestIntervalMillis = Math.max(30000L, config.getLong("ai.remote.request-interval-millis", 30000L));
         this.maxBotsPerPlayerMessage = Math.max(1, config.getInt("ai.remote.max-bots-per-player-message", 2));
+        this.batchResponders = config.getBoolean("ai.remote.batch-responders", true);
+        this.streaming = config.getBoolean("ai.remote.streaming", false);
+        this.burstDebounceMillis = Math.max(0L, config.getLong("ai.remote.burst.debounce-millis", 1500L));
+        this.burstMaxWaitMillis = Math.max(burstDebounceMillis, config.getLong("ai.remote.burst.max-wait-millis", 5000L));
+        this.cacheEnabled = config.getBoolean("ai.remote.cache.enabled", true);
+        this.cacheMaxEntries = Math.max(1, config.getInt("ai.remote.cache.max-entries", 256));
+        this.cacheTtlMillis = Math.max(1000L, config.getLong("ai.remote.cache.ttl-millis", 600000L));
+        this.cacheKeyLines = Math.max(1, config.getInt("ai.remote.cache.key-lines", 1));
+        this.cacheVariation = config.getBoolean("ai.remote.cache.variation", true);
+        String configuredTransport = config.getString("ai.remote.transport", "HTTP");
+        Transport parsedTransport = parseTransport(configuredTransport);
+        this.transport = parsedTransport == null ? Transport.HTTP : parsedTransport;
+        this.invalidTransport = parsedTransport == null ? configuredTransport : null;
         this.settings = new PlannerSettings(
                 config.getInt("ai.remote.settings.max-actions", 3),
                 config.getInt("ai.remote.settings.min-delay-ms", 800),
@@ -50,6 +78,36 @@ public class RemotePlannerConfig {
         this.personaKnowledgeLevel = config.getString("ai.remote.persona.knowledge-level", "average_player");
     }
 
+    private Transport parseTransport(String value) {
+        if (value == null) {
+            return Transport.HTTP;
+        }
+        try {
+            return Transport.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private List<Endpoint> readEndpoints(List<Map<?, ?>> entries, String fallbackUrl) {
+        List<Endpoint> result = new ArrayList<>();
+        if (entries != null) {
+            for (Map<?, ?> entry : entries) {
+                Object url = entry.get("url");
+                if (url == null || url.toString().isBlank()) {
+                    continue;
+                }
+                Object weight = entry.get("weight");
+                int parsedWeight = weight instanceof Number ? ((Number) weight).intValue() : 1;
+                result.add(new Endpoint(url.toString().trim(), Math.max(1, parsedWeight)));
+            }
+        }
+        if (result.isEmpty() && fallbackUrl != null && !fallbackUrl.isBlank()) {
+            result.add(new Endpoint(fallbackUrl, 1));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
     private List<String> listOrEmpty(List<String> items) {
         if (items == null) {
             return Collections.emptyList();
@@ -65,6 +123,14 @@ public class RemotePlannerConfig {
         return baseUrl;
     }
 
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public boolean hasEndpoints() {
+        return !endpoints.isEmpty();
+    }
+
     public String getPlanPath() {
         return planPath;
     }
@@ -120,4 +186,72 @@ public class RemotePlannerConfig {
     public int getMaxBotsPerPlayerMessage() {
         return maxBotsPerPlayerMessage;
     }
+
+    public boolean isBatchResponders() {
+        return batchResponders;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public long getBurstDebounceMillis() {
+        return burstDebounceMillis;
+    }
+
+    public long getBurstMaxWaitMillis() {
+        return burstMaxWaitMillis;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public long getCacheTtlMillis() {
+        return cacheTtlMillis;
+    }
+
+    public int getCacheKeyLines() {
+        return cacheKeyLines;
+    }
+
+    public boolean isCacheVariation() {
+        return cacheVariation;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public String getInvalidTransport() {
+        return invalidTransport;
+    }
+
+    public enum Transport {
+        HTTP,
+        WEBSOCKET,
+        UNIX_SOCKET
+    }
+
+    public static final class Endpoint {
+        private final String baseUrl;
+        private final int weight;
+
+        Endpoint(String baseUrl, int weight) {
+            this.baseUrl = baseUrl;
+            this.weight = weight;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package pl.nop.aiplayers.ai.trigger;
+
+import pl.nop.aiplayers.ai.controller.AIControllerRegistry;
+import pl.nop.aiplayers.chat.AIChatService;
+import pl.nop.aiplayers.manager.AIPlayerManager;
+import pl.nop.aiplayers.model.AIPlayerSession;
+
+import java.util.Set;
+
+public class TriggerBus {
+
+    private final AIPlayerManager manager;
+    private final AIControllerRegistry controllerRegistry;
+
+    public TriggerBus(AIPlayerManager manager, AIControllerRegistry controllerRegistry) {
+        this.manager = manager;
+        this.controllerRegistry = controllerRegistry;
+    }
+
+    public Set<TriggerType> getSubscriptions(AIPlayerSession session) {
+        return controllerRegistry.getController(session.getProfile().getControllerType()).getTriggers();
+    }
+
+    public void publish(AIPlayerSession session, TriggerType type) {
+        if (getSubscriptions(session).contains(type)) {
+            session.raiseTrigger(type);
+        }
+    }
+
+    public void onChat(AIChatService.ChatEntry entry) {
+        if (entry.getSenderType() != AIChatService.ChatSenderType.PLAYER) {
+            return;
+        }
+        String lower = entry.getMessage().toLowerCase();
+        long now = entry.getTimestampMillis();
+        for (AIPlayerSession session : manager.getAllSessions()) {
+            Set<TriggerType> subscriptions = getSubscriptions(session);
+            if (lower.contains(session.getProfile().getName().toLowerCase())) {
+                session.requestWake(now);
+            }
+            if (subscriptions.contains(TriggerType.PLAYER_CHAT)) {
+                session.raiseTrigger(TriggerType.PLAYER_CHAT);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package pl.nop.aiplayers.ai.trigger;
+
+public enum TriggerType {
+    TICK,
+    PLAYER_CHAT,
+    PLAYER_ENTERED_RADIUS,
+    WANDER_TARGET_REACHED
+}
@@ -0,0 +1,226 @@
+package pl.nop.aiplayers.autoscale;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import pl.nop.aiplayers.AIPlayersPlugin;
+import pl.nop.aiplayers.logging.AIPlayersFileLogger;
+import pl.nop.aiplayers.manager.AIPlayerManager;
+import pl.nop.aiplayers.model.AIPlayerProfile;
+import pl.nop.aiplayers.model.AIPlayerSession;
+import pl.nop.aiplayers.task.NanoHistogram;
+import pl.nop.aiplayers.task.TickTimings;
+import pl.nop.aiplayers.task.TimingPhase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BotAutoscaler {
+
+    private final AIPlayersPlugin plugin;
+    private final AIPlayerManager manager;
+    private final Set<String> spawnedByAutoscaler = new HashSet<>();
+    private BotAutoscalerConfig config;
+    private BukkitTask task;
+    private int ceiling = Integer.MAX_VALUE;
+    private boolean overloaded;
+    private long lastChangeMillis;
+    private TickTimings sampledTimings;
+    private long sampledCount;
+    private long sampledNanos;
+    private volatile int lastDesired = -1;
+    private volatile double lastAiTickMillis;
+
+    public BotAutoscaler(AIPlayersPlugin plugin, AIPlayerManager manager, BotAutoscalerConfig config) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.config = config;
+    }
+
+    public void start() {
+        manager.setReportActiveBots(config.isEnabled());
+        if (!config.isEnabled()) {
+            return;
+        }
+        int interval = config.getEvaluateIntervalTicks();
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::evaluate, interval, interval);
+        logInfo("Bot autoscaler enabled: target " + config.getTargetPlayerCount() + " players, "
+                + config.getMinBots() + "-" + config.getMaxBots() + " bots, mspt budget " + config.getMsptBudget() + ".");
+    }
+
+    public int getStartupLimit() {
+        if (!config.isEnabled()) {
+            return Integer.MAX_VALUE;
+        }
+        int wanted = config.getTargetPlayerCount() - manager.getOnlineHumansCount();
+        return Math.max(config.getMinBots(), Math.min(wanted, config.getMaxBots()));
+    }
+
+    public void adopt(Collection<AIPlayerSession> sessions) {
+        for (AIPlayerSession session : sessions) {
+            spawnedByAutoscaler.add(session.getProfile().getName());
+        }
+    }
+
+    public void updateConfig(BotAutoscalerConfig newConfig) {
+        shutdown();
+        this.config = newConfig;
+        this.ceiling = Integer.MAX_VALUE;
+        this.overloaded = false;
+        this.lastDesired = -1;
+        start();
+    }
+
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public int getLastDesired() {
+        return lastDesired;
+    }
+
+    public int getCeiling() {
+        return ceiling;
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    public double getLastAiTickMillis() {
+        return lastAiTickMillis;
+    }
+
+    private void evaluate() {
+        BotAutoscalerConfig current = config;
+        long now = System.currentTimeMillis();
+        double mspt = Bukkit.getAverageTickTime();
+        double aiTickMillis = sampleAiTickMillis();
+        lastAiTickMillis = aiTickMillis;
+        int active = manager.getOnlineAICount();
+
+        if (mspt > current.getMsptBudget() || aiTickMillis > current.getAiTickBudgetMillis()) {
+            if (!overloaded) {
+                logInfo("Autoscaler over budget (mspt=" + format(mspt) + ", ai tick=" + format(aiTickMillis)
+                        + "ms); shrinking bot fleet.");
+            }
+            overloaded = true;
+            ceiling = Math.max(current.getMinBots(), Math.min(ceiling, active) - current.getMaxStep());
+        } else if (mspt < current.getMsptRecover() && aiTickMillis < current.getAiTickRecoverMillis()) {
+            if (overloaded) {
+                logInfo("Autoscaler load recovered (mspt=" + format(mspt) + ", ai tick=" + format(aiTickMillis) + "ms).");
+            }
+            overloaded = false;
+            if (ceiling != Integer.MAX_VALUE) {
+                int raised = ceiling + current.getMaxStep();
+                ceiling = raised >= current.getMaxBots() ? Integer.MAX_VALUE : raised;
+            }
+        }
+
+        int wanted = current.getTargetPlayerCount() - manager.getOnlineHumansCount();
+        int desired = Math.max(current.getMinBots(), Math.min(wanted, Math.min(current.getMaxBots(), ceiling)));
+        lastDesired = desired;
+        int delta = desired - active;
+        if (delta == 0) {
+            return;
+        }
+        boolean shedding = overloaded && delta < 0;
+        if (!shedding) {
+            if (Math.abs(delta) <= current.getTolerance() || now - lastChangeMillis < current.getChangeCooldownMillis()) {
+                return;
+            }
+        }
+        int step = Math.max(-current.getMaxStep(), Math.min(current.getMaxStep(), delta));
+        int changed = step > 0 ? grow(step) : shrink(-step);
+        if (changed > 0) {
+            lastChangeMillis = now;
+            logToFile("Autoscaler " + (step > 0 ? "spawned " : "despawned ") + changed + " bot(s); active "
+                    + manager.getOnlineAICount() + ", desired " + desired + ", reported " + manager.getReportedPlayerCount()
+                    + ", mspt " + format(mspt) + ", ai tick " + format(aiTickMillis) + "ms.");
+        }
+    }
+
+    private int grow(int count) {
+        int spawned = 0;
+        for (AIPlayerProfile profile : manager.getIdleProfiles()) {
+            if (spawned >= count) {
+                break;
+            }
+            if (manager.spawnStoredProfile(profile) != null) {
+                spawnedByAutoscaler.add(profile.getName());
+                spawned++;
+            }
+        }
+        return spawned;
+    }
+
+    private int shrink(int count) {
+        List<AIPlayerSession> candidates = new ArrayList<>();
+        Set<String> active = new HashSet<>();
+        for (AIPlayerSession session : manager.getAllSessions()) {
+            active.add(session.getProfile().getName());
+            if (spawnedByAutoscaler.contains(session.getProfile().getName())) {
+                candidates.add(session);
+            }
+        }
+        spawnedByAutoscaler.retainAll(active);
+        candidates.sort(Comparator.comparing((AIPlayerSession session) -> !session.isDormant())
+                .thenComparingInt(session -> session.getPlayersInRadius().size()));
+        int despawned = 0;
+        for (AIPlayerSession session : candidates) {
+            if (despawned >= count) {
+                break;
+            }
+            manager.despawnAIPlayer(session.getProfile().getName());
+            spawnedByAutoscaler.remove(session.getProfile().getName());
+            despawned++;
+        }
+        return despawned;
+    }
+
+    private double sampleAiTickMillis() {
+        TickTimings timings = plugin.getTickTimings();
+        if (timings == null) {
+            return 0.0;
+        }
+        NanoHistogram total = timings.getPhase(TimingPhase.TOTAL);
+        long count = total.getCount();
+        long nanos = total.getTotalNanos();
+        long countDelta = count - sampledCount;
+        long nanosDelta = nanos - sampledNanos;
+        boolean fresh = timings != sampledTimings || countDelta < 0 || nanosDelta < 0;
+        sampledTimings = timings;
+        sampledCount = count;
+        sampledNanos = nanos;
+        if (fresh || countDelta == 0) {
+            return lastAiTickMillis;
+        }
+        return nanosDelta / (double) countDelta / 1_000_000.0;
+    }
+
+    private String format(double value) {
+        return String.format("%.1f", value);
+    }
+
+    private void logInfo(String message) {
+        plugin.getLogger().info(message);
+        logToFile(message);
+    }
+
+    private void logToFile(String message) {
+        AIPlayersFileLogger fileLogger = plugin.getFileLogger();
+        if (fileLogger != null) {
+            fileLogger.info(message);
+        }
+    }
+}
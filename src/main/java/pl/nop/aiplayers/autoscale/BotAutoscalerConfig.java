@@ -0,0 +1,83 @@
+package pl.nop.aiplayers.autoscale;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+public class BotAutoscalerConfig {
+
+    private final boolean enabled;
+    private final int targetPlayerCount;
+    private final int tolerance;
+    private final int minBots;
+    private final int maxBots;
+    private final int evaluateIntervalTicks;
+    private final int maxStep;
+    private final long changeCooldownMillis;
+    private final double msptBudget;
+    private final double msptRecover;
+    private final double aiTickBudgetMillis;
+    private final double aiTickRecoverMillis;
+
+    public BotAutoscalerConfig(FileConfiguration config) {
+        this.enabled = config.getBoolean("ai.autoscaler.enabled", false);
+        this.targetPlayerCount = Math.max(0, config.getInt("ai.autoscaler.target-player-count", 20));
+        this.tolerance = Math.max(0, config.getInt("ai.autoscaler.tolerance", 1));
+        this.minBots = Math.max(0, config.getInt("ai.autoscaler.min-bots", 0));
+        this.maxBots = Math.max(minBots, config.getInt("ai.autoscaler.max-bots", 50));
+        this.evaluateIntervalTicks = Math.max(20, config.getInt("ai.autoscaler.evaluate-interval-ticks", 100));
+        this.maxStep = Math.max(1, config.getInt("ai.autoscaler.max-step", 2));
+        this.changeCooldownMillis = Math.max(0L, config.getLong("ai.autoscaler.change-cooldown-millis", 15000L));
+        this.msptBudget = Math.max(1.0, config.getDouble("ai.autoscaler.mspt-budget", 40.0));
+        this.msptRecover = Math.min(msptBudget, Math.max(0.0, config.getDouble("ai.autoscaler.mspt-recover", 30.0)));
+        this.aiTickBudgetMillis = Math.max(0.1, config.getDouble("ai.autoscaler.ai-tick-budget-millis", 5.0));
+        this.aiTickRecoverMillis = Math.min(aiTickBudgetMillis,
+                Math.max(0.0, config.getDouble("ai.autoscaler.ai-tick-recover-millis", 3.0)));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getTargetPlayerCount() {
+        return targetPlayerCount;
+    }
+
+    public int getTolerance() {
+        return tolerance;
+    }
+
+    public int getMinBots() {
+        return minBots;
+    }
+
+    public int getMaxBots() {
+        return maxBots;
+    }
+
+    public int getEvaluateIntervalTicks() {
+        return evaluateIntervalTicks;
+    }
+
+    public int getMaxStep() {
+        return maxStep;
+    }
+
+    public long getChangeCooldownMillis() {
+        return changeCooldownMillis;
+    }
+
+    public double getMsptBudget() {
+        return msptBudget;
+    }
+
+    public double getMsptRecover() {
+        return msptRecover;
+    }
+
+    public double getAiTickBudgetMillis() {
+        return aiTickBudgetMillis;
+    }
+
+    public double getAiTickRecoverMillis() {
+        return aiTickRecoverMillis;
+    }
+}
@@ -14,7 +14,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class AIChatService {
 
@@ -27,6 +29,7 @@ public class AIChatService {
     private volatile long lastChatUpdateMillis;
     private volatile long lastPlayerChatUpdateMillis;
     private volatile long lastPlayerChatSequence;
+    private final List<Consumer<ChatEntry>> observers = new CopyOnWriteArrayList<>();
 
     public AIChatService(Plugin plugin, int maxSize, long rateLimitMillis) {
         this.plugin = plugin;
@@ -41,13 +44,21 @@ public class AIChatService {
         }
         long now = System.currentTimeMillis();
         long sequence = sequenceCounter.incrementAndGet();
-        chatHistory.addLast(ChatEntry.fromParts(sender, message, senderType, now, sequence));
+        ChatEntry entry = ChatEntry.fromParts(sender, message, senderType, now, sequence);
+        chatHistory.addLast(entry);
         lastChatUpdateMillis = now;
         if (senderType == ChatSenderType.PLAYER) {
             lastPlayerChatUpdateMillis = now;
             lastPlayerChatSequence = sequence;
         }
         logToFile("Recorded chat message: " + sender + ": " + message);
+        for (Consumer<ChatEntry> observer : observers) {
+            observer.accept(entry);
+        }
+    }
+
+    public void addObserver(Consumer<ChatEntry> observer) {
+        observers.add(observer);
     }
 
     public synchronized void recordMessage(String message) {
@@ -111,6 +122,10 @@ public class AIChatService {
         return lastPlayerChatSequence;
     }
 
+    public long getChatSequence() {
+        return sequenceCounter.get();
+    }
+
     private void logToFile(String message) {
         AIPlayersFileLogger fileLogger = getFileLogger();
         if (fileLogger != null) {
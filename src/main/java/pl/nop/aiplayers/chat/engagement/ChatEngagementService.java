@@ -1,6 +1,7 @@
 package pl.nop.aiplayers.chat.engagement;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.annotations.SerializedName;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -8,21 +9,18 @@ import org.bukkit.plugin.Plugin;
 import pl.nop.aiplayers.AIPlayersPlugin;
 import pl.nop.aiplayers.ai.controller.PlannerSettings;
 import pl.nop.aiplayers.chat.AIChatService;
+import pl.nop.aiplayers.load.LoadGovernor;
+import pl.nop.aiplayers.load.SheddableWork;
 import pl.nop.aiplayers.logging.AIPlayersFileLogger;
 import pl.nop.aiplayers.manager.AIPlayerManager;
 import pl.nop.aiplayers.model.AIPlayerSession;
+import pl.nop.aiplayers.planner.PlannerTransport;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -33,44 +31,42 @@ public class ChatEngagementService {
     private final AIChatService chatService;
     private final AIPlayerManager aiPlayerManager;
     private ChatEngagementConfig config;
+    private final LoadGovernor loadGovernor;
     private final Gson gson;
-    private HttpClient httpClient;
+    private PlannerTransport transport;
     private final AtomicReference<Long> nextEngageAtMillis;
-    private final AtomicLong lastAttemptMillis;
     private final AtomicReference<Long> nextBot2BotEngageAtMillis;
-    private final AtomicLong lastBot2BotAttemptMillis;
     private final AtomicLong bot2BotSequence;
 
     public ChatEngagementService(Plugin plugin, AIChatService chatService, AIPlayerManager aiPlayerManager,
-                                 ChatEngagementConfig config) {
+                                 ChatEngagementConfig config, LoadGovernor loadGovernor, PlannerTransport transport) {
         this.plugin = plugin;
         this.chatService = chatService;
         this.aiPlayerManager = aiPlayerManager;
         this.config = config;
+        this.loadGovernor = loadGovernor;
         this.gson = new Gson();
-        this.httpClient = buildHttpClient(config);
+        this.transport = transport;
         this.nextEngageAtMillis = new AtomicReference<>();
-        this.lastAttemptMillis = new AtomicLong(0L);
         this.nextBot2BotEngageAtMillis = new AtomicReference<>();
-        this.lastBot2BotAttemptMillis = new AtomicLong(0L);
         this.bot2BotSequence = new AtomicLong(0L);
     }
 
     public void tick(long nowMillis) {
-        if (config.isBot2BotEnabled()) {
+        if (config.isBot2BotEnabled() && loadGovernor.isAllowed(SheddableWork.BOT2BOT_ENGAGEMENT)) {
             tickBot2Bot(nowMillis);
         }
-        if (!config.isEnabled()) {
+        if (!config.isEnabled() || !loadGovernor.isAllowed(SheddableWork.PLAYER_ENGAGEMENT)) {
             return;
         }
-        long lastChatUpdate = chatService.getLastChatUpdateMillis();
-        if (!shouldSchedule(nowMillis, lastChatUpdate)) {
+        Long scheduled = nextEngageAtMillis.get();
+        if (scheduled == null || scheduled == 0L) {
+            scheduleNext(nowMillis);
             return;
         }
-        if (nowMillis < nextEngageAtMillis.get()) {
+        if (nowMillis < scheduled) {
             return;
         }
-        lastAttemptMillis.set(nowMillis);
         Optional<AIPlayerSession> bot = selectOnlineBot();
         if (bot.isEmpty()) {
             scheduleNext(nowMillis);
@@ -89,57 +85,26 @@ public class ChatEngagementService {
         sendRequest(bot.get(), request, nowMillis);
     }
 
-    public void updateConfig(ChatEngagementConfig newConfig) {
+    public void onChatRecorded(AIChatService.ChatEntry entry) {
+        if (config.isEnabled()) {
+            scheduleNext(entry.getTimestampMillis());
+        }
+        if (config.isBot2BotEnabled()) {
+            scheduleNextBot2Bot(entry.getTimestampMillis());
+        }
+    }
+
+    public void updateConfig(ChatEngagementConfig newConfig, PlannerTransport newTransport) {
         if (newConfig == null) {
             return;
         }
         this.config = newConfig;
-        this.httpClient = buildHttpClient(newConfig);
+        this.transport = newTransport;
         this.nextEngageAtMillis.set(0L);
-        this.lastAttemptMillis.set(0L);
         this.nextBot2BotEngageAtMillis.set(0L);
-        this.lastBot2BotAttemptMillis.set(0L);
         this.bot2BotSequence.set(0L);
     }
 
-    private HttpClient buildHttpClient(ChatEngagementConfig currentConfig) {
-        return HttpClient.newBuilder()
-                .connectTimeout(currentConfig.getConnectTimeout())
-                .build();
-    }
-
-    private boolean shouldSchedule(long nowMillis, long lastChatUpdate) {
-        Long scheduled = nextEngageAtMillis.get();
-        if (scheduled == null || scheduled == 0L) {
-            scheduleNext(nowMillis);
-            return true;
-        }
-        if (lastChatUpdate == 0L) {
-            return true;
-        }
-        if (lastChatUpdate > lastAttemptMillis.get()) {
-            scheduleNext(lastChatUpdate);
-            return false;
-        }
-        return true;
-    }
-
-    private boolean shouldScheduleBot2Bot(long nowMillis, long lastChatUpdate) {
-        Long scheduled = nextBot2BotEngageAtMillis.get();
-        if (scheduled == null || scheduled == 0L) {
-            scheduleNextBot2Bot(nowMillis);
-            return true;
-        }
-        if (lastChatUpdate == 0L) {
-            return true;
-        }
-        if (lastChatUpdate > lastBot2BotAttemptMillis.get()) {
-            scheduleNextBot2Bot(lastChatUpdate);
-            return false;
-        }
-        return true;
-    }
-
     private void scheduleNext(long baseMillis) {
         int minSeconds = config.getMinEmptyChatSeconds();
         int maxSeconds = config.getMaxEmptyChatSeconds();
@@ -190,8 +155,7 @@ public class ChatEngagementService {
     }
 
     private EngagementRequest buildRequest(AIPlayerSession botSession, Player target) {
-        String baseUrl = config.getBaseUrl();
-        if (baseUrl == null || baseUrl.isBlank()) {
+        if (transport == null) {
             plugin.getLogger().warning("Chat engagement enabled but base-url is empty. Skipping request.");
             return null;
         }
@@ -231,50 +195,34 @@ public class ChatEngagementService {
     }
 
     private void sendRequest(AIPlayerSession botSession, EngagementRequest request, long nowMillis) {
-        String payload = gson.toJson(request);
-        String targetUrl = config.getBaseUrl() + config.getPlanPath();
-        long startMillis = System.currentTimeMillis();
-        HttpRequest httpRequest = HttpRequest.newBuilder()
-                .uri(URI.create(targetUrl))
-                .timeout(config.getRequestTimeout())
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
-                .build();
-        logToFile("Sending engagement request " + request.requestId + " to " + targetUrl
+        logToFile("Sending engagement request " + request.requestId + " to " + transport.describe()
                 + " for bot=" + botSession.getProfile().getName() + ", target=" + request.targetPlayer);
-        logToFile("Engagement request " + request.requestId + " payload: " + payload);
-        logToFile("Engagement request " + request.requestId + " timeouts: connect="
-                + config.getConnectTimeout().toMillis() + "ms, request=" + config.getRequestTimeout().toMillis() + "ms");
-
-        httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    long durationMillis = System.currentTimeMillis() - startMillis;
-                    if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                        plugin.getLogger().warning("Engagement API responded with status " + response.statusCode());
-                        logToFile("Engagement response " + request.requestId + " status " + response.statusCode()
-                                + ", durationMs=" + durationMillis
-                                + ", payload=" + response.body());
-                        return null;
+        sendPlannerRequest("Engagement", botSession, request.requestId, gson.toJson(request),
+                () -> scheduleNext(nowMillis));
+    }
+
+    private void sendPlannerRequest(String label, AIPlayerSession botSession, String requestId, String payload,
+                                    Runnable reschedule) {
+        String botId = botSession.getProfile().getUuid().toString();
+        AtomicReference<PlannedAction> matched = new AtomicReference<>();
+        transport.send(label, requestId, payload, json -> {
+                    try {
+                        PlannedAction action = gson.fromJson(json, PlannedAction.class);
+                        if (action != null && botId.equals(action.botId)) {
+                            matched.compareAndSet(null, action);
+                        }
+                    } catch (JsonParseException ex) {
+                        logToFile(label + " response " + requestId + " skipped malformed action: " + ex.getMessage());
                     }
-                    logToFile("Engagement response " + request.requestId + " durationMs=" + durationMillis
-                            + ", payload=" + response.body());
-                    return gson.fromJson(response.body(), PlannerResponse.class);
                 })
-                .thenAccept(response -> handlePlannerResponse(botSession, response))
-                .exceptionally(ex -> {
-                    String details = describeException(ex);
-                    long durationMillis = System.currentTimeMillis() - startMillis;
-                    String message = "Engagement API request failed after " + durationMillis + "ms to " + targetUrl
-                            + " for request " + request.requestId + ": " + details;
-                    plugin.getLogger().warning(message);
-                    logToFile(message);
-                    return null;
-                })
-                .whenComplete((ignored, throwable) -> scheduleNext(nowMillis));
+                .whenComplete((success, ex) -> {
+                    handlePlannerAction(botSession, matched.get());
+                    reschedule.run();
+                });
     }
 
-    private void handlePlannerResponse(AIPlayerSession botSession, PlannerResponse response) {
-        String message = extractPlannerMessage(botSession, response);
+    private void handlePlannerAction(AIPlayerSession botSession, PlannedAction action) {
+        String message = extractPlannerMessage(botSession, action);
         if (message == null || message.isBlank()) {
             return;
         }
@@ -282,15 +230,7 @@ public class ChatEngagementService {
         logToFile("Engagement message sent by " + botSession.getProfile().getName() + ": " + message);
     }
 
-    private String extractPlannerMessage(AIPlayerSession botSession, PlannerResponse response) {
-        if (response == null || response.actions == null || response.actions.isEmpty()) {
-            return null;
-        }
-        String botId = botSession.getProfile().getUuid().toString();
-        PlannedAction action = response.actions.stream()
-                .filter(item -> botId.equals(item.botId))
-                .findFirst()
-                .orElse(null);
+    private String extractPlannerMessage(AIPlayerSession botSession, PlannedAction action) {
         if (action == null || action.message == null || action.message.isBlank()) {
             return null;
         }
@@ -315,15 +255,14 @@ public class ChatEngagementService {
     }
 
     private void tickBot2Bot(long nowMillis) {
-        long lastChatUpdate = chatService.getLastChatUpdateMillis();
-        if (!shouldScheduleBot2Bot(nowMillis, lastChatUpdate)) {
+        Long scheduled = nextBot2BotEngageAtMillis.get();
+        if (scheduled == null || scheduled == 0L) {
+            scheduleNextBot2Bot(nowMillis);
             return;
         }
-        Long scheduled = nextBot2BotEngageAtMillis.get();
-        if (scheduled == null || nowMillis < scheduled) {
+        if (nowMillis < scheduled) {
             return;
         }
-        lastBot2BotAttemptMillis.set(nowMillis);
         List<AIPlayerSession> bots = selectOnlineBots();
         if (bots.size() < 2) {
             scheduleNextBot2Bot(nowMillis);
@@ -359,8 +298,7 @@ public class ChatEngagementService {
     }
 
     private Bot2BotRequest buildBot2BotRequest(AIPlayerSession botSession, AIPlayerSession targetSession) {
-        String baseUrl = config.getBaseUrl();
-        if (baseUrl == null || baseUrl.isBlank()) {
+        if (transport == null) {
             plugin.getLogger().warning("Bot2Bot engagement enabled but base-url is empty. Skipping request.");
             return null;
         }
@@ -504,47 +442,11 @@ public class ChatEngagementService {
     }
 
     private void sendBot2BotRequest(AIPlayerSession botSession, Bot2BotRequest request, long nowMillis) {
-        String payload = gson.toJson(request);
-        String targetUrl = config.getBaseUrl() + config.getPlanPath();
-        long startMillis = System.currentTimeMillis();
-        HttpRequest httpRequest = HttpRequest.newBuilder()
-                .uri(URI.create(targetUrl))
-                .timeout(config.getRequestTimeout())
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
-                .build();
-        logToFile("Sending bot2bot engagement request " + request.requestId + " to " + targetUrl
+        logToFile("Sending bot2bot engagement request " + request.requestId + " to " + transport.describe()
                 + " for bot=" + botSession.getProfile().getName()
                 + ", target=" + request.targetPlayer);
-        logToFile("Bot2bot engagement request " + request.requestId + " payload: " + payload);
-        logToFile("Bot2bot engagement request " + request.requestId + " timeouts: connect="
-                + config.getConnectTimeout().toMillis() + "ms, request=" + config.getRequestTimeout().toMillis() + "ms");
-
-        httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    long durationMillis = System.currentTimeMillis() - startMillis;
-                    if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                        plugin.getLogger().warning("Bot2bot engagement API responded with status " + response.statusCode());
-                        logToFile("Bot2bot engagement response " + request.requestId + " status " + response.statusCode()
-                                + ", durationMs=" + durationMillis
-                                + ", payload=" + response.body());
-                        return null;
-                    }
-                    logToFile("Bot2bot engagement response " + request.requestId + " durationMs=" + durationMillis
-                            + ", payload=" + response.body());
-                    return gson.fromJson(response.body(), PlannerResponse.class);
-                })
-                .thenAccept(response -> handlePlannerResponse(botSession, response))
-                .exceptionally(ex -> {
-                    String details = describeException(ex);
-                    long durationMillis = System.currentTimeMillis() - startMillis;
-                    String message = "Bot2bot engagement API request failed after " + durationMillis + "ms to " + targetUrl
-                            + " for request " + request.requestId + ": " + details;
-                    plugin.getLogger().warning(message);
-                    logToFile(message);
-                    return null;
-                })
-                .whenComplete((ignored, throwable) -> scheduleNextBot2Bot(nowMillis));
+        sendPlannerRequest("Bot2bot engagement", botSession, request.requestId, gson.toJson(request),
+                () -> scheduleNextBot2Bot(nowMillis));
     }
 
     private void logToFile(String message) {
@@ -561,28 +463,6 @@ public class ChatEngagementService {
         return null;
     }
 
-    private String describeException(Throwable ex) {
-        Throwable root = ex;
-        if (ex instanceof CompletionException && ex.getCause() != null) {
-            root = ex.getCause();
-        }
-        StringBuilder details = new StringBuilder(root.getClass().getSimpleName());
-        String message = root.getMessage();
-        if (message != null && !message.isBlank()) {
-            details.append(": ").append(message);
-        }
-        Throwable cause = root.getCause();
-        if (cause != null && cause != root) {
-            details.append(" (cause: ").append(cause.getClass().getSimpleName());
-            String causeMessage = cause.getMessage();
-            if (causeMessage != null && !causeMessage.isBlank()) {
-                details.append(": ").append(causeMessage);
-            }
-            details.append(")");
-        }
-        return details.toString();
-    }
-
     private static class EngagementRequest {
         @SerializedName("request_id")
         private String requestId;
@@ -598,12 +478,6 @@ public class ChatEngagementService {
         private String targetPlayer;
     }
 
-    private static class PlannerResponse {
-        @SerializedName("request_id")
-        private String requestId;
-        private List<PlannedAction> actions;
-    }
-
     private static class PlannedAction {
         @SerializedName("bot_id")
         private String botId;
@@ -6,8 +6,25 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import pl.nop.aiplayers.ai.DecisionPipeline;
+import pl.nop.aiplayers.autoscale.BotAutoscaler;
+import pl.nop.aiplayers.ai.controller.AIController;
+import pl.nop.aiplayers.ai.controller.ControllerExecutor;
+import pl.nop.aiplayers.ai.controller.PlannerResponseCache;
+import pl.nop.aiplayers.ai.controller.RemotePlannerAIController;
+import pl.nop.aiplayers.load.LoadGovernor;
 import pl.nop.aiplayers.manager.AIPlayerManager;
+import pl.nop.aiplayers.model.AIControllerType;
 import pl.nop.aiplayers.model.AIPlayerSession;
+import pl.nop.aiplayers.planner.BalancedPlannerTransport;
+import pl.nop.aiplayers.planner.ResilientPlannerTransport;
+import pl.nop.aiplayers.planner.SharedHttpTransport;
+import pl.nop.aiplayers.task.NanoHistogram;
+import pl.nop.aiplayers.task.PartitionedDecisionRunner;
+import pl.nop.aiplayers.task.TickTimings;
+import pl.nop.aiplayers.task.TimingPhase;
+
+import java.util.List;
 
 public class AIPlayersCommand implements CommandExecutor {
 
@@ -26,7 +43,7 @@ public class AIPlayersCommand implements CommandExecutor {
         }
 
         if (args.length == 0) {
-            sender.sendMessage(ChatColor.YELLOW + "/aiplayers <add|remove|list|inspect|reload>");
+            sender.sendMessage(ChatColor.YELLOW + "/aiplayers <add|remove|list|inspect|reload|timings>");
             return true;
         }
 
@@ -47,6 +64,9 @@ public class AIPlayersCommand implements CommandExecutor {
             case "reload":
                 handleReload(sender);
                 break;
+            case "timings":
+                handleTimings(sender, args);
+                break;
             default:
                 sender.sendMessage(ChatColor.RED + "Unknown subcommand");
         }
@@ -140,6 +160,129 @@ public class AIPlayersCommand implements CommandExecutor {
         sender.sendMessage(ChatColor.GREEN + "AIPlayers configuration reloaded.");
     }
 
+    private void handleTimings(CommandSender sender, String[] args) {
+        TickTimings timings = plugin.getTickTimings();
+        if (timings == null) {
+            sender.sendMessage(ChatColor.RED + "Tick timings are not available yet.");
+            return;
+        }
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            timings.reset();
+            sender.sendMessage(ChatColor.GREEN + "AIPlayers timings reset.");
+            return;
+        }
+        long sinceSeconds = (System.currentTimeMillis() - timings.getResetAtMillis()) / 1000L;
+        sender.sendMessage(ChatColor.GOLD + "AIPlayers timings (last " + sinceSeconds + "s, ms: avg / p50 / p95 / p99 / max):");
+        for (TimingPhase phase : TimingPhase.values()) {
+            sender.sendMessage(ChatColor.YELLOW + formatHistogram(phase.name().toLowerCase(), timings.getPhase(phase)));
+        }
+        sender.sendMessage(ChatColor.YELLOW + formatHistogram("drift", timings.getDrift()));
+        sender.sendMessage(ChatColor.YELLOW + String.format("- scheduler: processed %d, carried over %d",
+                timings.getLastProcessed(), timings.getLastCarriedOver()));
+
+        long started = 0;
+        long skipped = 0;
+        long timedOut = 0;
+        long discarded = 0;
+        long applied = 0;
+        for (AIPlayerSession session : manager.getAllSessions()) {
+            DecisionPipeline pipeline = session.getDecisionPipeline();
+            started += pipeline.getStartedCount();
+            skipped += pipeline.getSkippedCount();
+            timedOut += pipeline.getTimedOutCount();
+            discarded += pipeline.getDiscardedCount();
+            applied += pipeline.getAppliedCount();
+        }
+        sender.sendMessage(ChatColor.YELLOW + String.format(
+                "- decisions: started %d, skipped %d, timed out %d, discarded %d, applied %d",
+                started, skipped, timedOut, discarded, applied));
+
+        ControllerExecutor executor = plugin.getControllerRegistry().getExecutor();
+        sender.sendMessage(ChatColor.YELLOW + String.format(
+                "- executor %s: active %d, queue %d/%d (peak %d), submitted %d, completed %d, rejected %d",
+                executor.getMode(), executor.getActiveCount(), executor.getQueueDepth(), executor.getQueueCapacity(),
+                executor.getPeakQueueDepth(), executor.getSubmittedCount(), executor.getCompletedCount(),
+                executor.getRejectedCount()));
+        PartitionedDecisionRunner partitions = plugin.getPartitionRunner();
+        if (partitions != null) {
+            sender.sendMessage(ChatColor.YELLOW + String.format(
+                    "- partitions: %d partition(s) / %d decision(s) last dispatch, pool %d threads, active %d, queued %d",
+                    partitions.getLastPartitionCount(), partitions.getLastJobCount(), partitions.getParallelism(),
+                    partitions.getActiveThreadCount(), partitions.getQueuedTaskCount()));
+        }
+        AIController remote = plugin.getControllerRegistry().getController(AIControllerType.REMOTE);
+        if (remote instanceof RemotePlannerAIController) {
+            PlannerResponseCache cache = ((RemotePlannerAIController) remote).getResponseCache();
+            if (cache.isEnabled()) {
+                long lookups = cache.getHits() + cache.getMisses();
+                sender.sendMessage(ChatColor.YELLOW + String.format(
+                        "- planner cache: hits %d, misses %d (%.1f%% hit rate), entries %d/%d, evicted %d, expired %d",
+                        cache.getHits(), cache.getMisses(), lookups == 0 ? 0.0 : cache.getHits() * 100.0 / lookups,
+                        cache.size(), cache.getMaxEntries(), cache.getEvictions(), cache.getExpirations()));
+            }
+        }
+        SharedHttpTransport http = plugin.getSharedHttp();
+        if (http != null) {
+            sender.sendMessage(ChatColor.YELLOW + String.format(
+                    "- planner http: in flight %d/%d, queued %d, endpoints %d, submitted %d, rejected %d",
+                    http.getInFlightCount(), http.getConfig().getMaxInFlight(), http.getQueuedCount(),
+                    http.getEndpointCount(), http.getSubmittedCount(), http.getRejectedCount()));
+        }
+        BalancedPlannerTransport balancer = plugin.getPlannerBalancer();
+        if (balancer != null) {
+            sender.sendMessage(ChatColor.YELLOW + String.format("- planner balancer: hedged %d, hedge wins %d, failovers %d",
+                    balancer.getHedgeCount(), balancer.getHedgeWinCount(), balancer.getFailoverCount()));
+            for (BalancedPlannerTransport.EndpointStats endpoint : balancer.getEndpointStats()) {
+                sender.sendMessage(ChatColor.YELLOW + String.format(
+                        "  %s (weight %d)%s: ewma %.0f ms, p50 %d ms, p99 %d ms, in flight %d, requests %d, "
+                                + "failures %d, ejections %d",
+                        endpoint.getEndpoint(), endpoint.getWeight(), endpoint.isEjected() ? " [ejected]" : "",
+                        endpoint.getEwmaMillis(), endpoint.getP50Millis(), endpoint.getP99Millis(), endpoint.getInFlight(),
+                        endpoint.getRequestCount(), endpoint.getFailureCount(), endpoint.getEjectionCount()));
+            }
+        }
+        for (ResilientPlannerTransport resilient : plugin.getResilientTransports()) {
+            sender.sendMessage(ChatColor.YELLOW + String.format(
+                    "- planner %s: circuit %s (opened %d), limit %.1f (in flight %d), timeout %d ms, "
+                            + "requests %d, shed %d, circuit-skipped %d, timeouts %d, failures %d, retries %d",
+                    resilient.describe(), resilient.getCircuitState(), resilient.getCircuitOpenedCount(), resilient.getLimit(),
+                    resilient.getInFlight(), resilient.getTimeoutMillis(), resilient.getRequestCount(), resilient.getShedCount(),
+                    resilient.getOpenRejectedCount(), resilient.getTimeoutCount(), resilient.getFailureCount(),
+                    resilient.getRetryCount()));
+        }
+        LoadGovernor governor = plugin.getLoadGovernor();
+        sender.sendMessage(ChatColor.YELLOW + String.format("- governor: shed level %d, mspt %.2f",
+                governor.getShedLevel(), governor.getLastMspt()));
+        BotAutoscaler autoscaler = plugin.getAutoscaler();
+        if (autoscaler != null && autoscaler.isEnabled()) {
+            int ceiling = autoscaler.getCeiling();
+            sender.sendMessage(ChatColor.YELLOW + String.format(
+                    "- autoscaler: active %d, desired %d, ceiling %s, reported %d, ai tick %.2f ms%s",
+                    manager.getOnlineAICount(), autoscaler.getLastDesired(),
+                    ceiling == Integer.MAX_VALUE ? "none" : String.valueOf(ceiling), manager.getReportedPlayerCount(),
+                    autoscaler.getLastAiTickMillis(), autoscaler.isOverloaded() ? " (over budget)" : ""));
+        }
+
+        List<TickTimings.BotCost> slowest = timings.getSlowestBots(5);
+        if (slowest.isEmpty()) {
+            return;
+        }
+        sender.sendMessage(ChatColor.GOLD + "Slowest AI players on the main thread (last "
+                + timings.getBotWindowMillis() / 1000L + "s):");
+        for (TickTimings.BotCost cost : slowest) {
+            sender.sendMessage(ChatColor.YELLOW + String.format("- %s: %.3f ms", cost.getName(), cost.getNanos() / 1_000_000.0));
+        }
+    }
+
+    private String formatHistogram(String label, NanoHistogram histogram) {
+        return String.format("- %s: %d samples, %.3f / %.3f / %.3f / %.3f / %.3f", label, histogram.getCount(),
+                histogram.getAverageNanos() / 1_000_000.0,
+                histogram.getPercentileNanos(0.50) / 1_000_000.0,
+                histogram.getPercentileNanos(0.95) / 1_000_000.0,
+                histogram.getPercentileNanos(0.99) / 1_000_000.0,
+                histogram.getMaxNanos() / 1_000_000.0);
+    }
+
     private String parseInstruction(String[] args, int startIndex) {
         StringBuilder builder = new StringBuilder();
         for (int i = startIndex; i < args.length; i++) {
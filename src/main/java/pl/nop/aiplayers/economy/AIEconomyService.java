@@ -8,18 +8,30 @@ import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 import pl.nop.aiplayers.model.AIPlayerProfile;
 
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class AIEconomyService {
 
     private final JavaPlugin plugin;
     private final boolean enabled;
     private Economy economy;
+    private volatile long balanceTtlMillis;
+    private final Map<UUID, CachedAccount> accounts = new ConcurrentHashMap<>();
 
-    public AIEconomyService(JavaPlugin plugin, boolean enabled) {
+    public AIEconomyService(JavaPlugin plugin, boolean enabled, long balanceTtlMillis) {
         this.plugin = plugin;
         this.enabled = enabled;
+        this.balanceTtlMillis = Math.max(0L, balanceTtlMillis);
         setupEconomy();
     }
 
+    public void updateBalanceTtl(long balanceTtlMillis) {
+        this.balanceTtlMillis = Math.max(0L, balanceTtlMillis);
+    }
+
     private void setupEconomy() {
         if (!enabled) {
             plugin.getLogger().info("Economy integration disabled in config.");
@@ -46,7 +58,7 @@ public class AIEconomyService {
         if (!isAvailable()) {
             return;
         }
-        OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(profile.getUuid());
+        OfflinePlayer offlinePlayer = account(profile).player;
         if (!economy.hasAccount(offlinePlayer)) {
             economy.createPlayerAccount(offlinePlayer);
         }
@@ -56,12 +68,30 @@ public class AIEconomyService {
         if (!isAvailable()) {
             return 0;
         }
-        return economy.getBalance(Bukkit.getOfflinePlayer(profile.getUuid()));
+        CachedAccount account = account(profile);
+        double balance = economy.getBalance(account.player);
+        account.store(balance);
+        return balance;
+    }
+
+    public double getCachedBalance(AIPlayerProfile profile) {
+        if (!isAvailable()) {
+            return 0;
+        }
+        CachedAccount account = account(profile);
+        if (System.currentTimeMillis() - account.refreshedAtMillis >= balanceTtlMillis
+                && account.refreshing.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> refresh(account));
+        }
+        return account.balance;
     }
 
     public void deposit(AIPlayerProfile profile, double amount) {
         if (isAvailable()) {
-            economy.depositPlayer(Bukkit.getOfflinePlayer(profile.getUuid()), amount);
+            CachedAccount account = account(profile);
+            if (economy.depositPlayer(account.player, amount).transactionSuccess()) {
+                account.adjust(amount);
+            }
         }
     }
 
@@ -69,7 +99,42 @@ public class AIEconomyService {
         if (!isAvailable()) {
             return false;
         }
-        return economy.withdrawPlayer(Bukkit.getOfflinePlayer(profile.getUuid()), amount).transactionSuccess();
+        CachedAccount account = account(profile);
+        boolean success = economy.withdrawPlayer(account.player, amount).transactionSuccess();
+        if (success) {
+            account.adjust(-amount);
+        }
+        return success;
+    }
+
+    public void evict(AIPlayerProfile profile) {
+        accounts.remove(profile.getUuid());
+    }
+
+    private CachedAccount account(AIPlayerProfile profile) {
+        return accounts.computeIfAbsent(profile.getUuid(), uuid -> {
+            CachedAccount created = new CachedAccount(Bukkit.getOfflinePlayer(uuid));
+            try {
+                created.store(economy.getBalance(created.player));
+            } catch (RuntimeException ex) {
+                plugin.getLogger().warning("Failed to load balance for " + uuid + ": " + ex.getMessage());
+            }
+            return created;
+        });
+    }
+
+    private void refresh(CachedAccount account) {
+        try {
+            Economy current = economy;
+            if (current != null) {
+                long version = account.getVersion();
+                account.storeIfUnchanged(current.getBalance(account.player), version);
+            }
+        } catch (RuntimeException ex) {
+            plugin.getLogger().warning("Failed to refresh balance for " + account.player.getUniqueId() + ": " + ex.getMessage());
+        } finally {
+            account.refreshing.set(false);
+        }
     }
 
     private boolean isEconomyProviderReady() {
@@ -83,4 +148,39 @@ public class AIEconomyService {
         Plugin essentials = plugin.getServer().getPluginManager().getPlugin("Essentials");
         return essentials == null || essentials.isEnabled();
     }
+
+    private static class CachedAccount {
+        private final OfflinePlayer player;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile double balance;
+        private volatile long refreshedAtMillis;
+        private long version;
+
+        private CachedAccount(OfflinePlayer player) {
+            this.player = player;
+        }
+
+        private synchronized void store(double balance) {
+            this.balance = balance;
+            this.refreshedAtMillis = System.currentTimeMillis();
+            version++;
+        }
+
+        private synchronized long getVersion() {
+            return version;
+        }
+
+        private synchronized boolean storeIfUnchanged(double balance, long expectedVersion) {
+            if (version != expectedVersion) {
+                return false;
+            }
+            store(balance);
+            return true;
+        }
+
+        private synchronized void adjust(double delta) {
+            this.balance = balance + delta;
+            version++;
+        }
+    }
 }
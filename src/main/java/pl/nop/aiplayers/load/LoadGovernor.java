@@ -0,0 +1,93 @@
+package pl.nop.aiplayers.load;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import pl.nop.aiplayers.AIPlayersPlugin;
+import pl.nop.aiplayers.logging.AIPlayersFileLogger;
+
+import java.util.List;
+
+public class LoadGovernor {
+
+    private final Plugin plugin;
+    private volatile LoadGovernorConfig config;
+    private volatile int shedLevel;
+    private volatile double lastMspt;
+    private long ticksSinceSample;
+
+    public LoadGovernor(Plugin plugin, LoadGovernorConfig config) {
+        this.plugin = plugin;
+        updateConfig(config);
+    }
+
+    public void updateConfig(LoadGovernorConfig newConfig) {
+        if (newConfig == null) {
+            return;
+        }
+        for (String invalid : newConfig.getInvalidEntries()) {
+            plugin.getLogger().warning("Unknown entry in ai.governor.shedding-order: " + invalid + ", ignoring.");
+        }
+        this.config = newConfig;
+        this.shedLevel = Math.min(shedLevel, newConfig.getSheddingOrder().size());
+        this.ticksSinceSample = 0L;
+    }
+
+    public void tick() {
+        LoadGovernorConfig current = config;
+        if (!current.isEnabled()) {
+            shedLevel = 0;
+            return;
+        }
+        if (++ticksSinceSample < current.getSampleIntervalTicks()) {
+            return;
+        }
+        ticksSinceSample = 0L;
+        double mspt = Bukkit.getAverageTickTime();
+        lastMspt = mspt;
+        int level = shedLevel;
+        List<SheddableWork> order = current.getSheddingOrder();
+        if (mspt > current.getShedAboveMspt() && level < order.size()) {
+            shedLevel = level + 1;
+            logLevelChange("Server under load (mspt=" + formatMspt(mspt) + "); shedding " + order.get(level) + ".");
+        } else if (mspt < current.getRecoverBelowMspt() && level > 0) {
+            shedLevel = level - 1;
+            logLevelChange("Server load recovered (mspt=" + formatMspt(mspt) + "); resuming " + order.get(level - 1) + ".");
+        }
+    }
+
+    public boolean isAllowed(SheddableWork work) {
+        LoadGovernorConfig current = config;
+        if (!current.isEnabled()) {
+            return true;
+        }
+        int index = current.getSheddingOrder().indexOf(work);
+        return index < 0 || index >= shedLevel;
+    }
+
+    public int getShedLevel() {
+        return shedLevel;
+    }
+
+    public double getLastMspt() {
+        return lastMspt;
+    }
+
+    private String formatMspt(double mspt) {
+        return String.format("%.1f", mspt);
+    }
+
+    private void logLevelChange(String message) {
+        plugin.getLogger().info(message);
+        AIPlayersFileLogger fileLogger = getFileLogger();
+        if (fileLogger != null) {
+            fileLogger.info(message);
+        }
+    }
+
+    private AIPlayersFileLogger getFileLogger() {
+        if (plugin instanceof AIPlayersPlugin) {
+            return ((AIPlayersPlugin) plugin).getFileLogger();
+        }
+        return null;
+    }
+}
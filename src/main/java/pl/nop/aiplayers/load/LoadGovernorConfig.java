@@ -0,0 +1,74 @@
+package pl.nop.aiplayers.load;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class LoadGovernorConfig {
+
+    private static final List<String> DEFAULT_SHEDDING_ORDER = List.of(
+            SheddableWork.BOT2BOT_ENGAGEMENT.name(),
+            SheddableWork.PLAYER_ENGAGEMENT.name(),
+            SheddableWork.WANDER.name(),
+            SheddableWork.PLANNER.name(),
+            SheddableWork.CHAT_REPLY.name()
+    );
+
+    private final boolean enabled;
+    private final int sampleIntervalTicks;
+    private final double shedAboveMspt;
+    private final double recoverBelowMspt;
+    private final List<SheddableWork> sheddingOrder;
+    private final List<String> invalidEntries;
+
+    public LoadGovernorConfig(FileConfiguration config) {
+        this.enabled = config.getBoolean("ai.governor.enabled", true);
+        this.sampleIntervalTicks = Math.max(1, config.getInt("ai.governor.sample-interval-ticks", 20));
+        this.shedAboveMspt = Math.max(1.0, config.getDouble("ai.governor.shed-above-mspt", 45.0));
+        this.recoverBelowMspt = Math.min(shedAboveMspt, Math.max(0.0, config.getDouble("ai.governor.recover-below-mspt", 35.0)));
+        List<String> configuredOrder = config.getStringList("ai.governor.shedding-order");
+        if (configuredOrder == null || configuredOrder.isEmpty()) {
+            configuredOrder = DEFAULT_SHEDDING_ORDER;
+        }
+        List<SheddableWork> order = new ArrayList<>();
+        List<String> invalid = new ArrayList<>();
+        for (String entry : configuredOrder) {
+            try {
+                SheddableWork work = SheddableWork.valueOf(entry.trim().toUpperCase());
+                if (!order.contains(work)) {
+                    order.add(work);
+                }
+            } catch (IllegalArgumentException ex) {
+                invalid.add(entry);
+            }
+        }
+        this.sheddingOrder = Collections.unmodifiableList(order);
+        this.invalidEntries = Collections.unmodifiableList(invalid);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSampleIntervalTicks() {
+        return sampleIntervalTicks;
+    }
+
+    public double getShedAboveMspt() {
+        return shedAboveMspt;
+    }
+
+    public double getRecoverBelowMspt() {
+        return recoverBelowMspt;
+    }
+
+    public List<SheddableWork> getSheddingOrder() {
+        return sheddingOrder;
+    }
+
+    public List<String> getInvalidEntries() {
+        return invalidEntries;
+    }
+}
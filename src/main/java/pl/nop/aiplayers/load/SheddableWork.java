@@ -0,0 +1,9 @@
+package pl.nop.aiplayers.load;
+
+public enum SheddableWork {
+    BOT2BOT_ENGAGEMENT,
+    PLAYER_ENGAGEMENT,
+    WANDER,
+    PLANNER,
+    CHAT_REPLY
+}
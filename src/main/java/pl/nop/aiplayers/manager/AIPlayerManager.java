@@ -3,6 +3,7 @@ package pl.nop.aiplayers.manager;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
 import pl.nop.aiplayers.AIPlayersPlugin;
 import pl.nop.aiplayers.economy.AIEconomyService;
@@ -13,10 +14,13 @@ import pl.nop.aiplayers.model.AIPlayerProfile;
 import pl.nop.aiplayers.model.AIPlayerSession;
 import pl.nop.aiplayers.npc.NPCHandle;
 import pl.nop.aiplayers.npc.ProtocolLibNPCHandle;
+import pl.nop.aiplayers.spatial.SpatialIndex;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,15 +31,19 @@ public class AIPlayerManager {
     private final Plugin plugin;
     private final Map<String, AIPlayerProfile> profiles = new HashMap<>();
     private final Map<String, AIPlayerSession> sessions = new HashMap<>();
+    private final Map<Inventory, AIPlayerSession> sessionsByInventory = new IdentityHashMap<>();
     private final AIEconomyService economyService;
+    private final SpatialIndex<AIPlayerSession> botIndex;
     private int loadedBotCount;
+    private boolean reportActiveBots;
     private AIControllerType defaultControllerType;
     private AIBehaviorMode defaultBehaviorMode;
 
-    public AIPlayerManager(Plugin plugin, AIEconomyService economyService, AIControllerType defaultControllerType,
-                           AIBehaviorMode defaultBehaviorMode) {
+    public AIPlayerManager(Plugin plugin, AIEconomyService economyService, SpatialIndex<AIPlayerSession> botIndex,
+                           AIControllerType defaultControllerType, AIBehaviorMode defaultBehaviorMode) {
         this.plugin = plugin;
         this.economyService = economyService;
+        this.botIndex = botIndex;
         this.defaultControllerType = defaultControllerType;
         this.defaultBehaviorMode = defaultBehaviorMode;
     }
@@ -75,43 +83,58 @@ public class AIPlayerManager {
         logToFile("Loaded AI player profile for " + profile.getName() + " (uuid=" + profile.getUuid() + ")");
     }
 
-    public synchronized int spawnStoredProfiles() {
+    public synchronized int spawnStoredProfiles(int limit) {
         int spawned = 0;
         for (AIPlayerProfile profile : profiles.values()) {
-            if (sessions.containsKey(profile.getName())) {
-                continue;
-            }
-            if (profile.getName().length() > MAX_NAME_LENGTH) {
-                plugin.getLogger().warning("Skipping AI player " + profile.getName()
-                        + " because name exceeds " + MAX_NAME_LENGTH + " characters.");
-                continue;
-            }
-            Location spawnLocation = profile.getLastKnownLocation();
-            if (spawnLocation == null) {
-                spawnLocation = profile.getSpawnLocation();
+            if (spawned >= limit) {
+                break;
             }
-            if (spawnLocation == null || spawnLocation.getWorld() == null) {
-                plugin.getLogger().warning("Skipping AI player " + profile.getName()
-                        + " because no valid saved location was found.");
+            if (sessions.containsKey(profile.getName())) {
                 continue;
             }
-            if (profile.getSpawnLocation() == null) {
-                profile.setSpawnLocation(spawnLocation.clone());
+            if (spawnStoredProfile(profile) != null) {
+                spawned++;
             }
-            profile.setLastKnownLocation(spawnLocation.clone());
-            NPCHandle npcHandle = new ProtocolLibNPCHandle(plugin, profile.getUuid(), profile.getName());
-            npcHandle.spawn(spawnLocation);
-            Inventory inventory = Bukkit.createInventory(null, 27, "AI " + profile.getName() + " Inventory");
-            Inventory enderChest = Bukkit.createInventory(null, 27, "AI " + profile.getName() + " EnderChest");
-            AIPlayerSession session = new AIPlayerSession(profile, npcHandle, inventory, enderChest);
-            sessions.put(profile.getName(), session);
-            spawned++;
-            plugin.getLogger().info("Restored AI player " + profile.getName() + " at " + locationToString(spawnLocation));
-            logToFile("Restored AI player " + profile.getName() + " at " + locationToString(spawnLocation));
         }
         return spawned;
     }
 
+    public synchronized AIPlayerSession spawnStoredProfile(AIPlayerProfile profile) {
+        AIPlayerSession existing = sessions.get(profile.getName());
+        if (existing != null) {
+            return existing;
+        }
+        if (profile.getName().length() > MAX_NAME_LENGTH) {
+            plugin.getLogger().warning("Skipping AI player " + profile.getName()
+                    + " because name exceeds " + MAX_NAME_LENGTH + " characters.");
+            return null;
+        }
+        Location spawnLocation = profile.getLastKnownLocation();
+        if (spawnLocation == null) {
+            spawnLocation = profile.getSpawnLocation();
+        }
+        if (spawnLocation == null || spawnLocation.getWorld() == null) {
+            plugin.getLogger().warning("Skipping AI player " + profile.getName()
+                    + " because no valid saved location was found.");
+            return null;
+        }
+        if (profile.getSpawnLocation() == null) {
+            profile.setSpawnLocation(spawnLocation.clone());
+        }
+        profile.setLastKnownLocation(spawnLocation.clone());
+        NPCHandle npcHandle = new ProtocolLibNPCHandle(plugin, profile.getUuid(), profile.getName());
+        npcHandle.spawn(spawnLocation);
+        Inventory inventory = createInventory(profile.getName() + " Inventory", profile.getInventoryContents());
+        Inventory enderChest = createInventory(profile.getName() + " EnderChest", profile.getEnderChestContents());
+        AIPlayerSession session = new AIPlayerSession(profile, npcHandle, inventory, enderChest);
+        sessions.put(profile.getName(), session);
+        sessionsByInventory.put(inventory, session);
+        botIndex.update(profile.getUuid(), session, spawnLocation);
+        plugin.getLogger().info("Restored AI player " + profile.getName() + " at " + locationToString(spawnLocation));
+        logToFile("Restored AI player " + profile.getName() + " at " + locationToString(spawnLocation));
+        return session;
+    }
+
     public synchronized AIPlayerSession spawnAIPlayer(String name, Location spawnLocation, double roamRadius, String chatInstruction) {
         if (name.length() > MAX_NAME_LENGTH) {
             plugin.getLogger().warning("Skipping AI player spawn for " + name
@@ -134,10 +157,12 @@ public class AIPlayerManager {
         profile.setLastKnownLocation(spawnLocation.clone());
         NPCHandle npcHandle = new ProtocolLibNPCHandle(plugin, profile.getUuid(), profile.getName());
         npcHandle.spawn(spawnLocation);
-        Inventory inventory = Bukkit.createInventory(null, 27, "AI " + name + " Inventory");
-        Inventory enderChest = Bukkit.createInventory(null, 27, "AI " + name + " EnderChest");
+        Inventory inventory = createInventory(name + " Inventory", profile.getInventoryContents());
+        Inventory enderChest = createInventory(name + " EnderChest", profile.getEnderChestContents());
         AIPlayerSession session = new AIPlayerSession(profile, npcHandle, inventory, enderChest);
         sessions.put(name, session);
+        sessionsByInventory.put(inventory, session);
+        botIndex.update(profile.getUuid(), session, spawnLocation);
         plugin.getLogger().info("Spawned AI player " + name + " at " + locationToString(spawnLocation));
         logToFile("Spawned AI player " + name + " at " + locationToString(spawnLocation));
         notifyVelocityBridge();
@@ -147,6 +172,15 @@ public class AIPlayerManager {
     public synchronized void despawnAIPlayer(String name) {
         AIPlayerSession session = sessions.remove(name);
         if (session != null) {
+            Location lastLocation = session.getNpcHandle().getLocation();
+            if (lastLocation != null) {
+                session.getProfile().setLastKnownLocation(lastLocation);
+            }
+            session.getProfile().setInventoryContents(copyContents(session.getInventory()));
+            session.getProfile().setEnderChestContents(copyContents(session.getEnderChest()));
+            botIndex.remove(session.getProfile().getUuid());
+            sessionsByInventory.remove(session.getInventory());
+            session.markDespawned();
             session.getNpcHandle().despawn();
             plugin.getLogger().info("Despawned AI player " + name);
             logToFile("Despawned AI player " + name);
@@ -156,8 +190,10 @@ public class AIPlayerManager {
 
     public synchronized void removeAIPlayer(String name) {
         despawnAIPlayer(name);
-        if (profiles.remove(name) != null) {
+        AIPlayerProfile removed = profiles.remove(name);
+        if (removed != null) {
             loadedBotCount = Math.max(0, loadedBotCount - 1);
+            economyService.evict(removed);
         }
         logToFile("Removed AI player profile " + name);
     }
@@ -170,8 +206,21 @@ public class AIPlayerManager {
         return sessions.get(name);
     }
 
+    public synchronized AIPlayerSession getSessionByInventory(Inventory inventory) {
+        return inventory == null ? null : sessionsByInventory.get(inventory);
+    }
+
+    public synchronized AIPlayerSession getSessionByUuid(UUID uuid) {
+        for (AIPlayerSession session : sessions.values()) {
+            if (session.getProfile().getUuid().equals(uuid)) {
+                return session;
+            }
+        }
+        return null;
+    }
+
     public synchronized Collection<AIPlayerSession> getAllSessions() {
-        return Collections.unmodifiableCollection(sessions.values());
+        return List.copyOf(sessions.values());
     }
 
     public synchronized int getOnlineSessionCount() {
@@ -199,25 +248,65 @@ public class AIPlayerManager {
     }
 
     public synchronized int getReportedPlayerCount() {
-        return getOnlineHumansCount() + getLoadedBotCount();
+        return getOnlineHumansCount() + (reportActiveBots ? sessions.size() : getLoadedBotCount());
+    }
+
+    public synchronized void setReportActiveBots(boolean reportActiveBots) {
+        this.reportActiveBots = reportActiveBots;
+    }
+
+    public synchronized List<AIPlayerProfile> getIdleProfiles() {
+        List<AIPlayerProfile> idle = new ArrayList<>();
+        for (AIPlayerProfile profile : profiles.values()) {
+            if (!sessions.containsKey(profile.getName())) {
+                idle.add(profile);
+            }
+        }
+        return idle;
     }
 
     public synchronized Collection<AIPlayerProfile> getAllProfiles() {
-        return Collections.unmodifiableCollection(profiles.values());
+        return List.copyOf(profiles.values());
+    }
+
+    public Optional<AIPlayerSession> getNearestSession(Location location, double radius) {
+        if (location == null || location.getWorld() == null) {
+            return Optional.empty();
+        }
+        List<SpatialIndex.Hit<AIPlayerSession>> hits = botIndex.nearest(location.getWorld().getName(),
+                location.getX(), location.getY(), location.getZ(), 1, radius, null);
+        return hits.isEmpty() ? Optional.empty() : Optional.of(hits.get(0).getValue());
     }
 
-    public synchronized Optional<AIPlayerSession> getNearestSession(Location location, double radius) {
-        return sessions.values().stream()
-                .filter(session -> session.getNpcHandle().getLocation().getWorld().equals(location.getWorld()))
-                .filter(session -> session.getNpcHandle().getLocation().distanceSquared(location) <= radius * radius)
-                .findFirst();
+    public SpatialIndex<AIPlayerSession> getBotIndex() {
+        return botIndex;
     }
 
     public synchronized void despawnAll() {
         for (AIPlayerSession session : sessions.values()) {
+            session.markDespawned();
             session.getNpcHandle().despawn();
         }
         sessions.clear();
+        sessionsByInventory.clear();
+        botIndex.clear();
+    }
+
+    private Inventory createInventory(String title, ItemStack[] contents) {
+        Inventory inventory = Bukkit.createInventory(null, 27, "AI " + title);
+        if (contents != null) {
+            inventory.setContents(contents);
+        }
+        return inventory;
+    }
+
+    private ItemStack[] copyContents(Inventory inventory) {
+        ItemStack[] contents = inventory.getContents();
+        ItemStack[] copy = new ItemStack[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            copy[i] = contents[i] == null ? null : contents[i].clone();
+        }
+        return copy;
     }
 
     private String locationToString(Location location) {
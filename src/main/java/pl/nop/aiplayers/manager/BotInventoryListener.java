@@ -0,0 +1,41 @@
+package pl.nop.aiplayers.manager;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryEvent;
+import pl.nop.aiplayers.model.AIPlayerSession;
+
+public class BotInventoryListener implements Listener {
+
+    private final AIPlayerManager manager;
+
+    public BotInventoryListener(AIPlayerManager manager) {
+        this.manager = manager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onClick(InventoryClickEvent event) {
+        markDirty(event);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDrag(InventoryDragEvent event) {
+        markDirty(event);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onClose(InventoryCloseEvent event) {
+        markDirty(event);
+    }
+
+    private void markDirty(InventoryEvent event) {
+        AIPlayerSession session = manager.getSessionByInventory(event.getView().getTopInventory());
+        if (session != null) {
+            session.markInventoryDirty();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package pl.nop.aiplayers.model;
 
 import org.bukkit.Location;
+import org.bukkit.inventory.ItemStack;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -17,6 +18,8 @@ public class AIPlayerProfile {
     private double roamRadius;
     private String chatInstruction;
     private final Map<String, String> metadata;
+    private ItemStack[] inventoryContents;
+    private ItemStack[] enderChestContents;
 
     public AIPlayerProfile(UUID uuid, String name, AIControllerType controllerType, AIBehaviorMode behaviorMode,
                            Location lastKnownLocation, Location spawnLocation, double roamRadius, String chatInstruction) {
@@ -90,4 +93,20 @@ public class AIPlayerProfile {
     public Map<String, String> getMetadata() {
         return metadata;
     }
+
+    public ItemStack[] getInventoryContents() {
+        return inventoryContents;
+    }
+
+    public void setInventoryContents(ItemStack[] inventoryContents) {
+        this.inventoryContents = inventoryContents;
+    }
+
+    public ItemStack[] getEnderChestContents() {
+        return enderChestContents;
+    }
+
+    public void setEnderChestContents(ItemStack[] enderChestContents) {
+        this.enderChestContents = enderChestContents;
+    }
 }
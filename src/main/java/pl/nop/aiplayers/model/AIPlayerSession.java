@@ -1,10 +1,15 @@
 package pl.nop.aiplayers.model;
 
 import org.bukkit.inventory.Inventory;
+import pl.nop.aiplayers.ai.DecisionPipeline;
+import pl.nop.aiplayers.ai.trigger.TriggerType;
 import pl.nop.aiplayers.npc.NPCHandle;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AIPlayerSession {
 
@@ -14,6 +19,16 @@ public class AIPlayerSession {
     private final Inventory enderChest;
     private final Map<String, Object> runtimeMemory;
     private final Map<String, Long> cooldowns;
+    private final DecisionPipeline decisionPipeline;
+    private volatile boolean despawned;
+    private volatile LodTier lodTier = LodTier.NEAR;
+    private long lodVisits;
+    private volatile boolean dormant;
+    private volatile long dormantSinceMillis;
+    private volatile long wakeRequestedMillis;
+    private final AtomicInteger pendingTriggers = new AtomicInteger();
+    private Set<String> playersInRadius = Collections.emptySet();
+    private volatile InventorySummary inventorySummary;
 
     public AIPlayerSession(AIPlayerProfile profile, NPCHandle npcHandle, Inventory inventory, Inventory enderChest) {
         this.profile = profile;
@@ -22,6 +37,7 @@ public class AIPlayerSession {
         this.enderChest = enderChest;
         this.runtimeMemory = new ConcurrentHashMap<>();
         this.cooldowns = new ConcurrentHashMap<>();
+        this.decisionPipeline = new DecisionPipeline();
     }
 
     public AIPlayerProfile getProfile() {
@@ -47,4 +63,93 @@ public class AIPlayerSession {
     public Map<String, Long> getCooldowns() {
         return cooldowns;
     }
+
+    public boolean isDespawned() {
+        return despawned;
+    }
+
+    public void markDespawned() {
+        this.despawned = true;
+        decisionPipeline.invalidate();
+    }
+
+    public DecisionPipeline getDecisionPipeline() {
+        return decisionPipeline;
+    }
+
+    public LodTier getLodTier() {
+        return lodTier;
+    }
+
+    public void setLodTier(LodTier lodTier) {
+        this.lodTier = lodTier;
+    }
+
+    public long nextLodVisit() {
+        return lodVisits++;
+    }
+
+    public boolean isDormant() {
+        return dormant;
+    }
+
+    public long getDormantSinceMillis() {
+        return dormantSinceMillis;
+    }
+
+    public void setDormant(boolean dormant, long nowMillis) {
+        this.dormant = dormant;
+        this.dormantSinceMillis = dormant ? nowMillis : 0L;
+    }
+
+    public long getWakeRequestedMillis() {
+        return wakeRequestedMillis;
+    }
+
+    public void requestWake(long nowMillis) {
+        this.wakeRequestedMillis = nowMillis;
+    }
+
+    public void raiseTrigger(TriggerType type) {
+        int bit = 1 << type.ordinal();
+        pendingTriggers.getAndUpdate(mask -> mask | bit);
+    }
+
+    public boolean hasPendingTrigger(Set<TriggerType> types) {
+        int mask = pendingTriggers.get();
+        if (mask == 0) {
+            return false;
+        }
+        for (TriggerType type : types) {
+            if ((mask & (1 << type.ordinal())) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clearTriggers() {
+        pendingTriggers.set(0);
+    }
+
+    public Set<String> getPlayersInRadius() {
+        return playersInRadius;
+    }
+
+    public void setPlayersInRadius(Set<String> playersInRadius) {
+        this.playersInRadius = playersInRadius;
+    }
+
+    public InventorySummary getInventorySummary() {
+        InventorySummary summary = inventorySummary;
+        if (summary == null) {
+            summary = InventorySummary.of(inventory);
+            inventorySummary = summary;
+        }
+        return summary;
+    }
+
+    public void markInventoryDirty() {
+        inventorySummary = null;
+    }
 }
@@ -0,0 +1,48 @@
+package pl.nop.aiplayers.model;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+public final class InventorySummary {
+
+    private final Map<Material, Integer> counts;
+    private final List<String> lines;
+
+    private InventorySummary(Map<Material, Integer> counts) {
+        this.counts = Collections.unmodifiableMap(counts);
+        List<String> encoded = new ArrayList<>(counts.size());
+        for (Map.Entry<Material, Integer> entry : counts.entrySet()) {
+            encoded.add(entry.getKey().name() + " x" + entry.getValue());
+        }
+        this.lines = Collections.unmodifiableList(encoded);
+    }
+
+    public static InventorySummary of(Inventory inventory) {
+        Map<Material, Integer> counts = new EnumMap<>(Material.class);
+        for (ItemStack item : inventory) {
+            if (item != null && item.getType() != Material.AIR) {
+                counts.merge(item.getType(), item.getAmount(), Integer::sum);
+            }
+        }
+        return new InventorySummary(counts);
+    }
+
+    public Map<Material, Integer> getCounts() {
+        return counts;
+    }
+
+    public int getCount(Material material) {
+        return counts.getOrDefault(material, 0);
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+}
@@ -0,0 +1,8 @@
+package pl.nop.aiplayers.model;
+
+public enum LodTier {
+    NEAR,
+    MID,
+    FAR,
+    UNOBSERVED
+}
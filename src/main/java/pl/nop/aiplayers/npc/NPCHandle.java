@@ -11,4 +11,6 @@ public interface NPCHandle {
     Location getLocation();
     void teleport(Location location);
     void showTo(Player player);
+    void setDormant(boolean dormant);
+    boolean isDormant();
 }
@@ -27,6 +27,7 @@ public class ProtocolLibNPCHandle implements NPCHandle {
     private final int entityId;
     private Location location;
     private boolean spawned = false;
+    private boolean dormant = false;
 
     public ProtocolLibNPCHandle(Plugin plugin, UUID uuid, String name) {
         this.plugin = plugin;
@@ -66,6 +67,9 @@ public class ProtocolLibNPCHandle implements NPCHandle {
             return;
         }
         this.location = target.clone();
+        if (dormant) {
+            return;
+        }
         PacketContainer teleport = manager.createPacket(PacketType.Play.Server.ENTITY_TELEPORT);
         teleport.getIntegers().write(0, entityId);
         teleport.getDoubles().write(0, target.getX());
@@ -79,7 +83,7 @@ public class ProtocolLibNPCHandle implements NPCHandle {
 
     @Override
     public void lookAt(Location target) {
-        if (!spawned || manager == null || location == null) {
+        if (!spawned || dormant || manager == null || location == null) {
             return;
         }
         Location clone = location.clone();
@@ -97,6 +101,23 @@ public class ProtocolLibNPCHandle implements NPCHandle {
         moveTo(location);
     }
 
+    @Override
+    public void setDormant(boolean dormant) {
+        if (this.dormant == dormant) {
+            return;
+        }
+        this.dormant = dormant;
+        if (!dormant && spawned && manager != null && location != null) {
+            sendNamedEntitySpawn();
+            sendHeadRotation(location);
+        }
+    }
+
+    @Override
+    public boolean isDormant() {
+        return dormant;
+    }
+
     @Override
     public void showTo(Player player) {
         if (player == null || manager == null || location == null) {
@@ -0,0 +1,61 @@
+package pl.nop.aiplayers.planner;
+
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyTargetMillis;
+    private double limit;
+    private int inFlight;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyTargetMillis) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTargetMillis = latencyTargetMillis;
+        this.limit = initialLimit;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized boolean hasCapacity() {
+        return inFlight < (int) limit;
+    }
+
+    public synchronized void release() {
+        if (inFlight > 0) {
+            inFlight--;
+        }
+    }
+
+    public synchronized void onSuccess(long latencyMillis) {
+        if (latencyMillis > latencyTargetMillis) {
+            decrease();
+            return;
+        }
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+    }
+
+    public synchronized void onDrop() {
+        decrease();
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+}
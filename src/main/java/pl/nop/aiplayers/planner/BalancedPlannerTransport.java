@@ -0,0 +1,439 @@
+package pl.nop.aiplayers.planner;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+public class BalancedPlannerTransport implements PlannerTransport {
+
+    private static final int LATENCY_SAMPLES = 128;
+    private static final int MIN_HEDGE_SAMPLES = 20;
+    private static final double FAILURE_PENALTY = 2.0;
+
+    private final Plugin plugin;
+    private final List<Node> nodes;
+    private final PlannerBalancerConfig config;
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+    private final AtomicLong failoverCount = new AtomicLong();
+
+    public BalancedPlannerTransport(Plugin plugin, List<Replica> replicas, PlannerBalancerConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+        List<Node> created = new ArrayList<>();
+        for (Replica replica : replicas) {
+            created.add(new Node(replica.transport, replica.weight));
+        }
+        this.nodes = Collections.unmodifiableList(created);
+    }
+
+    @Override
+    public String describe() {
+        StringBuilder builder = new StringBuilder();
+        for (Node node : nodes) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(node.transport.describe()).append(" (weight ").append(node.weight).append(')');
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> send(String label, String requestId, String payload, Consumer<String> actionSink) {
+        Exchange exchange = new Exchange(actionSink);
+        Node primary = choose(null, System.currentTimeMillis());
+        dispatch(primary, label, requestId, payload, exchange, Attempt.PRIMARY);
+        if (config.isHedgeEnabled() && nodes.size() > 1) {
+            long delay = primary.hedgeDelay(config.getHedgePercentile(), config.getHedgeMinDelayMillis());
+            if (delay > 0) {
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                        .execute(() -> hedge(primary, label, requestId, payload, exchange, delay));
+            }
+        }
+        return exchange.result;
+    }
+
+    @Override
+    public void shutdown() {
+        nodes.forEach(node -> node.transport.shutdown());
+    }
+
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+
+    public long getFailoverCount() {
+        return failoverCount.get();
+    }
+
+    public List<EndpointStats> getEndpointStats() {
+        long now = System.currentTimeMillis();
+        List<EndpointStats> stats = new ArrayList<>();
+        for (Node node : nodes) {
+            stats.add(node.snapshot(now));
+        }
+        return stats;
+    }
+
+    private void hedge(Node primary, String label, String requestId, String payload, Exchange exchange, long delay) {
+        if (exchange.result.isDone() || exchange.owner.get() != null) {
+            return;
+        }
+        Node backup = choose(primary, System.currentTimeMillis());
+        if (backup == null) {
+            return;
+        }
+        hedgeCount.incrementAndGet();
+        PlannerLog.info(plugin, label + " request " + requestId + " still pending after " + delay + "ms on "
+                + primary.transport.describe() + "; hedging to " + backup.transport.describe() + ".");
+        dispatch(backup, label, requestId + "-hedge", payload, exchange, Attempt.HEDGE);
+    }
+
+    private void dispatch(Node node, String label, String attemptId, String payload, Exchange exchange, Attempt attempt) {
+        exchange.pending.incrementAndGet();
+        node.inFlight.incrementAndGet();
+        long startNanos = System.nanoTime();
+        Consumer<String> sink = json -> {
+            if (exchange.claim(node)) {
+                exchange.actionSink.accept(json);
+            }
+        };
+        CompletableFuture<Boolean> call;
+        try {
+            call = node.transport.send(label, attemptId, payload, sink);
+        } catch (RuntimeException ex) {
+            call = CompletableFuture.completedFuture(false);
+        }
+        call.whenComplete((success, ex) -> {
+            node.inFlight.decrementAndGet();
+            int remaining = exchange.pending.decrementAndGet();
+            long latencyMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+            if (ex == null && Boolean.TRUE.equals(success)) {
+                onSuccess(node, latencyMillis);
+                if (exchange.claim(node)) {
+                    if (attempt == Attempt.HEDGE) {
+                        hedgeWinCount.incrementAndGet();
+                    }
+                    exchange.result.complete(true);
+                }
+                return;
+            }
+            boolean unavailable = isUnavailable(ex);
+            if (!unavailable) {
+                onFailure(node, latencyMillis);
+            }
+            Node owner = exchange.owner.get();
+            if (owner == null && remaining == 0 && attempt == Attempt.PRIMARY && exchange.failedOver.compareAndSet(false, true)) {
+                Node backup = choose(node, System.currentTimeMillis());
+                if (backup != null) {
+                    failoverCount.incrementAndGet();
+                    PlannerLog.info(plugin, label + " request " + attemptId + (unavailable ? " not accepted by " : " failed on ")
+                            + node.transport.describe() + "; failing over to " + backup.transport.describe() + ".");
+                    dispatch(backup, label, attemptId + "-failover", payload, exchange, Attempt.FAILOVER);
+                    return;
+                }
+            }
+            if (owner == node || (owner == null && remaining == 0)) {
+                exchange.result.complete(false);
+            }
+        });
+    }
+
+    private Node choose(Node excluded, long now) {
+        List<Node> healthy = new ArrayList<>();
+        List<Node> candidates = new ArrayList<>();
+        double baseline = Double.MAX_VALUE;
+        for (Node node : nodes) {
+            if (!node.isEjected(now)) {
+                baseline = Math.min(baseline, node.getEwmaMillis());
+            }
+        }
+        for (Node node : nodes) {
+            if (node.readmitIfDue(now, baseline == Double.MAX_VALUE ? 0.0 : baseline)) {
+                PlannerLog.info(plugin, "Planner endpoint " + node.transport.describe() + " re-admitted after ejection.");
+            }
+            if (node != excluded && !node.isEjected(now)) {
+                healthy.add(node);
+                if (node.transport.isAvailable()) {
+                    candidates.add(node);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            if (excluded != null) {
+                return null;
+            }
+            candidates.addAll(healthy.isEmpty() ? nodes : healthy);
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        Node first = pickWeighted(candidates, null);
+        Node second = pickWeighted(candidates, first);
+        return first.score() <= second.score() ? first : second;
+    }
+
+    private Node pickWeighted(List<Node> candidates, Node skipped) {
+        int total = 0;
+        for (Node node : candidates) {
+            if (node != skipped) {
+                total += node.weight;
+            }
+        }
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Node node : candidates) {
+            if (node == skipped) {
+                continue;
+            }
+            roll -= node.weight;
+            if (roll < 0) {
+                return node;
+            }
+        }
+        return candidates.get(0);
+    }
+
+    private void onSuccess(Node node, long latencyMillis) {
+        if (node.recordSuccess(latencyMillis, config.getEwmaAlpha(), System.currentTimeMillis())) {
+            PlannerLog.warning(plugin, "Planner endpoint " + node.transport.describe() + " is healthy again.");
+        }
+    }
+
+    private void onFailure(Node node, long latencyMillis) {
+        long ejectedFor = node.recordFailure(latencyMillis, config, System.currentTimeMillis());
+        if (ejectedFor > 0) {
+            PlannerLog.warning(plugin, "Planner endpoint " + node.transport.describe() + " ejected for " + ejectedFor
+                    + "ms after " + config.getEjectAfterFailures() + " consecutive failures.");
+        }
+    }
+
+    private static boolean isUnavailable(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof PlannerUnavailableException;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, Math.max(0, (int) Math.ceil(sorted.length * percentile) - 1))];
+    }
+
+    private enum Attempt {
+        PRIMARY,
+        HEDGE,
+        FAILOVER
+    }
+
+    public static final class Replica {
+        private final PlannerTransport transport;
+        private final int weight;
+
+        public Replica(PlannerTransport transport, int weight) {
+            this.transport = transport;
+            this.weight = Math.max(1, weight);
+        }
+    }
+
+    public static final class EndpointStats {
+        private final String endpoint;
+        private final int weight;
+        private final double ewmaMillis;
+        private final long p50Millis;
+        private final long p99Millis;
+        private final int inFlight;
+        private final long requestCount;
+        private final long failureCount;
+        private final long ejectionCount;
+        private final boolean ejected;
+
+        EndpointStats(String endpoint, int weight, double ewmaMillis, long p50Millis, long p99Millis, int inFlight,
+                      long requestCount, long failureCount, long ejectionCount, boolean ejected) {
+            this.endpoint = endpoint;
+            this.weight = weight;
+            this.ewmaMillis = ewmaMillis;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.inFlight = inFlight;
+            this.requestCount = requestCount;
+            this.failureCount = failureCount;
+            this.ejectionCount = ejectionCount;
+            this.ejected = ejected;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public double getEwmaMillis() {
+            return ewmaMillis;
+        }
+
+        public long getP50Millis() {
+            return p50Millis;
+        }
+
+        public long getP99Millis() {
+            return p99Millis;
+        }
+
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        public long getRequestCount() {
+            return requestCount;
+        }
+
+        public long getFailureCount() {
+            return failureCount;
+        }
+
+        public long getEjectionCount() {
+            return ejectionCount;
+        }
+
+        public boolean isEjected() {
+            return ejected;
+        }
+    }
+
+    private static final class Exchange {
+        private final Consumer<String> actionSink;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private final AtomicReference<Node> owner = new AtomicReference<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean failedOver = new AtomicBoolean();
+
+        private Exchange(Consumer<String> actionSink) {
+            this.actionSink = actionSink;
+        }
+
+        private boolean claim(Node node) {
+            return owner.compareAndSet(null, node) || owner.get() == node;
+        }
+    }
+
+    private static final class Node {
+        private final PlannerTransport transport;
+        private final int weight;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyIndex;
+        private int latencyCount;
+        private double ewmaMillis;
+        private long requestCount;
+        private long failureCount;
+        private long ejectionCount;
+        private int consecutiveFailures;
+        private int ejectionStreak;
+        private long ejectedUntilMillis;
+        private boolean readmitted;
+
+        private Node(PlannerTransport transport, int weight) {
+            this.transport = transport;
+            this.weight = weight;
+        }
+
+        private synchronized boolean isEjected(long now) {
+            return now < ejectedUntilMillis;
+        }
+
+        private synchronized double getEwmaMillis() {
+            return ewmaMillis;
+        }
+
+        private synchronized boolean readmitIfDue(long now, double baselineMillis) {
+            if (ejectedUntilMillis == 0L || now < ejectedUntilMillis || readmitted) {
+                return false;
+            }
+            readmitted = true;
+            ewmaMillis = baselineMillis;
+            return true;
+        }
+
+        private synchronized double score() {
+            return ewmaMillis * (inFlight.get() + 1) / weight;
+        }
+
+        private synchronized boolean recordSuccess(long latencyMillis, double alpha, long now) {
+            requestCount++;
+            consecutiveFailures = 0;
+            latencies[latencyIndex] = latencyMillis;
+            latencyIndex = (latencyIndex + 1) % latencies.length;
+            latencyCount = Math.min(latencies.length, latencyCount + 1);
+            updateEwma(latencyMillis, alpha);
+            if (ejectionStreak > 0 && now >= ejectedUntilMillis) {
+                ejectionStreak = 0;
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized long recordFailure(long latencyMillis, PlannerBalancerConfig config, long now) {
+            requestCount++;
+            failureCount++;
+            consecutiveFailures++;
+            updateEwma(Math.max(latencyMillis, ewmaMillis) * FAILURE_PENALTY, config.getEwmaAlpha());
+            if (consecutiveFailures < config.getEjectAfterFailures() || now < ejectedUntilMillis) {
+                return 0L;
+            }
+            consecutiveFailures = 0;
+            ejectionCount++;
+            long duration = Math.min(config.getMaxEjectMillis(), config.getEjectMillis() << Math.min(ejectionStreak, 10));
+            ejectionStreak++;
+            ejectedUntilMillis = now + duration;
+            readmitted = false;
+            return duration;
+        }
+
+        private void updateEwma(double sampleMillis, double alpha) {
+            ewmaMillis = requestCount == 1 ? sampleMillis : ewmaMillis + alpha * (sampleMillis - ewmaMillis);
+        }
+
+        private long hedgeDelay(double percentile, long minDelayMillis) {
+            long[] sorted = sortedLatencies();
+            if (sorted.length < MIN_HEDGE_SAMPLES) {
+                return -1L;
+            }
+            return Math.max(minDelayMillis, percentile(sorted, percentile));
+        }
+
+        private long[] sortedLatencies() {
+            long[] sorted;
+            synchronized (this) {
+                sorted = Arrays.copyOf(latencies, latencyCount);
+            }
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        private EndpointStats snapshot(long now) {
+            long[] sorted = sortedLatencies();
+            long p50 = sorted.length == 0 ? 0L : percentile(sorted, 0.5);
+            long p99 = sorted.length == 0 ? 0L : percentile(sorted, 0.99);
+            synchronized (this) {
+                return new EndpointStats(transport.describe(), weight, ewmaMillis, p50, p99, inFlight.get(), requestCount,
+                        failureCount, ejectionCount, now < ejectedUntilMillis);
+            }
+        }
+    }
+}
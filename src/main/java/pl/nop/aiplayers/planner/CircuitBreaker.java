@@ -0,0 +1,123 @@
+package pl.nop.aiplayers.planner;
+
+public class CircuitBreaker {
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openMillis;
+    private final int halfOpenProbes;
+    private final boolean[] outcomes;
+    private int outcomeIndex;
+    private int outcomeCount;
+    private int failureCount;
+    private State state = State.CLOSED;
+    private long openUntilMillis;
+    private int probesInFlight;
+    private int probeSuccesses;
+    private long openedCount;
+
+    public CircuitBreaker(double failureRateThreshold, int windowSize, int minimumCalls, long openMillis, int halfOpenProbes) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = minimumCalls;
+        this.openMillis = openMillis;
+        this.halfOpenProbes = halfOpenProbes;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    public synchronized boolean tryAcquire(long nowMillis) {
+        if (state == State.OPEN) {
+            if (nowMillis < openUntilMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized boolean isAccepting(long nowMillis) {
+        if (state == State.OPEN) {
+            return nowMillis >= openUntilMillis;
+        }
+        return state == State.CLOSED || probesInFlight < halfOpenProbes;
+    }
+
+    public synchronized boolean onSuccess() {
+        if (state == State.HALF_OPEN) {
+            probeSuccesses++;
+            if (probeSuccesses >= halfOpenProbes) {
+                state = State.CLOSED;
+                clearWindow();
+                return true;
+            }
+            return false;
+        }
+        record(false);
+        return false;
+    }
+
+    public synchronized boolean onFailure(long nowMillis) {
+        if (state == State.HALF_OPEN) {
+            open(nowMillis);
+            return true;
+        }
+        if (state == State.OPEN) {
+            return false;
+        }
+        record(true);
+        if (outcomeCount >= minimumCalls && failureCount / (double) outcomeCount >= failureRateThreshold) {
+            open(nowMillis);
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getOpenedCount() {
+        return openedCount;
+    }
+
+    private void open(long nowMillis) {
+        state = State.OPEN;
+        openUntilMillis = nowMillis + openMillis;
+        openedCount++;
+        clearWindow();
+    }
+
+    private void record(boolean failure) {
+        if (outcomeCount == outcomes.length) {
+            if (outcomes[outcomeIndex]) {
+                failureCount--;
+            }
+        } else {
+            outcomeCount++;
+        }
+        outcomes[outcomeIndex] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+    }
+
+    private void clearWindow() {
+        outcomeIndex = 0;
+        outcomeCount = 0;
+        failureCount = 0;
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
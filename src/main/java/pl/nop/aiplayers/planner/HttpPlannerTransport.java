@@ -0,0 +1,166 @@
+package pl.nop.aiplayers.planner;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.bukkit.plugin.Plugin;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+public class HttpPlannerTransport implements PlannerTransport {
+
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    private final Plugin plugin;
+    private final SharedHttpTransport shared;
+    private final String targetUrl;
+    private final Duration requestTimeout;
+    private final boolean streaming;
+
+    public HttpPlannerTransport(Plugin plugin, SharedHttpTransport shared, String targetUrl, Duration requestTimeout,
+                                boolean streaming) {
+        this.plugin = plugin;
+        this.shared = shared;
+        this.targetUrl = targetUrl;
+        this.requestTimeout = requestTimeout;
+        this.streaming = streaming;
+    }
+
+    @Override
+    public String describe() {
+        return targetUrl;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> send(String label, String requestId, String payload, Consumer<String> actionSink) {
+        long startMillis = System.currentTimeMillis();
+        PlannerLog.info(plugin, label + " request " + requestId + " payload: " + payload);
+        PlannerLog.info(plugin, label + " request " + requestId + " timeouts: connect="
+                + shared.getConfig().getConnectTimeout().toMillis() + "ms, request=" + requestTimeout.toMillis() + "ms");
+        String accept = streaming ? NDJSON_CONTENT_TYPE + ", application/json" : "application/json";
+        HttpRequest httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(targetUrl))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
+                .build();
+        PlannerLog.info(plugin, label + " request " + requestId + " headers: Content-Type=application/json, Accept=" + accept);
+
+        return shared.submit(targetUrl, () -> shared.getClient().sendAsync(httpRequest,
+                        responseInfo -> bodySubscriber(responseInfo, label, requestId, actionSink, startMillis)), null)
+                .handle((response, ex) -> {
+                    if (ex != null) {
+                        long durationMillis = System.currentTimeMillis() - startMillis;
+                        PlannerLog.warning(plugin, label + " API request failed after " + durationMillis + "ms to " + targetUrl
+                                + " for request " + requestId + ": " + PlannerLog.describeException(ex));
+                        return false;
+                    }
+                    return response != null && response.body();
+                });
+    }
+
+    private HttpResponse.BodySubscriber<Boolean> bodySubscriber(HttpResponse.ResponseInfo responseInfo, String label,
+                                                                String requestId, Consumer<String> actionSink, long startMillis) {
+        int status = responseInfo.statusCode();
+        if (status < 200 || status >= 300) {
+            plugin.getLogger().warning(label + " API responded with status " + status);
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+                PlannerLog.info(plugin, label + " API responded with status " + status + " for request " + requestId
+                        + ", durationMs=" + (System.currentTimeMillis() - startMillis));
+                PlannerLog.info(plugin, label + " response " + requestId + " payload: " + body);
+                return false;
+            });
+        }
+        String contentType = responseInfo.headers().firstValue("Content-Type").orElse("");
+        if (streaming && contentType.toLowerCase().contains("ndjson")) {
+            PlannerLog.info(plugin, label + " API responded with status " + status + " for request " + requestId
+                    + ", streaming actions after " + (System.currentTimeMillis() - startMillis) + "ms");
+            ActionLineSubscriber lineSubscriber = new ActionLineSubscriber(label, requestId, actionSink, startMillis);
+            return HttpResponse.BodySubscribers.fromLineSubscriber(lineSubscriber, subscriber -> true,
+                    StandardCharsets.UTF_8, null);
+        }
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+            PlannerLog.info(plugin, label + " API responded with status " + status
+                    + " for request " + requestId
+                    + ", durationMs=" + (System.currentTimeMillis() - startMillis)
+                    + ", payloadLength=" + body.length());
+            PlannerLog.info(plugin, label + " response " + requestId + " payload: " + body);
+            return emitActions(label, requestId, body, actionSink);
+        });
+    }
+
+    private boolean emitActions(String label, String requestId, String body, Consumer<String> actionSink) {
+        try {
+            JsonElement root = JsonParser.parseString(body);
+            if (!root.isJsonObject()) {
+                return true;
+            }
+            JsonArray actions = root.getAsJsonObject().getAsJsonArray("actions");
+            if (actions != null) {
+                for (JsonElement action : actions) {
+                    actionSink.accept(action.toString());
+                }
+            }
+            return true;
+        } catch (JsonParseException | ClassCastException ex) {
+            PlannerLog.info(plugin, label + " response " + requestId + " could not be parsed: " + ex.getMessage());
+            return false;
+        }
+    }
+
+    private final class ActionLineSubscriber implements Flow.Subscriber<String> {
+        private final String label;
+        private final String requestId;
+        private final Consumer<String> actionSink;
+        private final long startMillis;
+        private int lines;
+
+        private ActionLineSubscriber(String label, String requestId, Consumer<String> actionSink, long startMillis) {
+            this.label = label;
+            this.requestId = requestId;
+            this.actionSink = actionSink;
+            this.startMillis = startMillis;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line == null || line.isBlank()) {
+                return;
+            }
+            lines++;
+            PlannerLog.info(plugin, label + " stream " + requestId + " line " + lines + " after "
+                    + (System.currentTimeMillis() - startMillis) + "ms: " + line);
+            try {
+                JsonObject action = JsonParser.parseString(line).getAsJsonObject();
+                actionSink.accept(action.toString());
+            } catch (JsonParseException | IllegalStateException ex) {
+                PlannerLog.info(plugin, label + " stream " + requestId + " skipped malformed line: " + ex.getMessage());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            PlannerLog.info(plugin, label + " stream " + requestId + " completed with " + lines + " line(s) after "
+                    + (System.currentTimeMillis() - startMillis) + "ms");
+        }
+    }
+}
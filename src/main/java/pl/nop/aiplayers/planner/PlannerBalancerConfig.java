@@ -0,0 +1,52 @@
+package pl.nop.aiplayers.planner;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+public class PlannerBalancerConfig {
+
+    private final double ewmaAlpha;
+    private final int ejectAfterFailures;
+    private final long ejectMillis;
+    private final long maxEjectMillis;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final long hedgeMinDelayMillis;
+
+    public PlannerBalancerConfig(FileConfiguration config) {
+        this.ewmaAlpha = Math.max(0.01, Math.min(1.0, config.getDouble("ai.remote.balancer.ewma-alpha", 0.3)));
+        this.ejectAfterFailures = Math.max(1, config.getInt("ai.remote.balancer.eject-after-failures", 3));
+        this.ejectMillis = Math.max(1000L, config.getLong("ai.remote.balancer.eject-millis", 30000L));
+        this.maxEjectMillis = Math.max(ejectMillis, config.getLong("ai.remote.balancer.max-eject-millis", 300000L));
+        this.hedgeEnabled = config.getBoolean("ai.remote.balancer.hedge.enabled", false);
+        this.hedgePercentile = Math.max(0.5, Math.min(0.999, config.getDouble("ai.remote.balancer.hedge.percentile", 0.95)));
+        this.hedgeMinDelayMillis = Math.max(10L, config.getLong("ai.remote.balancer.hedge.min-delay-millis", 200L));
+    }
+
+    public double getEwmaAlpha() {
+        return ewmaAlpha;
+    }
+
+    public int getEjectAfterFailures() {
+        return ejectAfterFailures;
+    }
+
+    public long getEjectMillis() {
+        return ejectMillis;
+    }
+
+    public long getMaxEjectMillis() {
+        return maxEjectMillis;
+    }
+
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public long getHedgeMinDelayMillis() {
+        return hedgeMinDelayMillis;
+    }
+}
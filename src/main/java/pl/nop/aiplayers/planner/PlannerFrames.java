@@ -0,0 +1,42 @@
+package pl.nop.aiplayers.planner;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+final class PlannerFrames {
+
+    private PlannerFrames() {
+    }
+
+    static void write(SocketChannel channel, String payload) throws IOException {
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + body.length);
+        buffer.putInt(body.length).put(body).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    static String read(SocketChannel channel, int maxFrameBytes) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        fill(channel, header);
+        int length = header.flip().getInt();
+        if (length < 0 || length > maxFrameBytes) {
+            throw new IOException("frame length " + length + " exceeds limit " + maxFrameBytes);
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        fill(channel, body);
+        return new String(body.array(), StandardCharsets.UTF_8);
+    }
+
+    private static void fill(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("planner socket closed");
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package pl.nop.aiplayers.planner;
+
+import org.bukkit.plugin.Plugin;
+import pl.nop.aiplayers.AIPlayersPlugin;
+import pl.nop.aiplayers.logging.AIPlayersFileLogger;
+
+import java.util.concurrent.CompletionException;
+
+final class PlannerLog {
+
+    private PlannerLog() {
+    }
+
+    static void info(Plugin plugin, String message) {
+        if (plugin instanceof AIPlayersPlugin) {
+            AIPlayersFileLogger fileLogger = ((AIPlayersPlugin) plugin).getFileLogger();
+            if (fileLogger != null) {
+                fileLogger.info(message);
+            }
+        }
+    }
+
+    static void warning(Plugin plugin, String message) {
+        plugin.getLogger().warning(message);
+        info(plugin, message);
+    }
+
+    static String describeException(Throwable ex) {
+        Throwable root = ex;
+        if (ex instanceof CompletionException && ex.getCause() != null) {
+            root = ex.getCause();
+        }
+        StringBuilder details = new StringBuilder(root.getClass().getSimpleName());
+        String message = root.getMessage();
+        if (message != null && !message.isBlank()) {
+            details.append(": ").append(message);
+        }
+        Throwable cause = root.getCause();
+        if (cause != null && cause != root) {
+            details.append(" (cause: ").append(cause.getClass().getSimpleName());
+            String causeMessage = cause.getMessage();
+            if (causeMessage != null && !causeMessage.isBlank()) {
+                details.append(": ").append(causeMessage);
+            }
+            details.append(")");
+        }
+        return details.toString();
+    }
+}
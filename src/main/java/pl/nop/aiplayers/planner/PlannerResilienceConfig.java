@@ -0,0 +1,113 @@
+package pl.nop.aiplayers.planner;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+public class PlannerResilienceConfig {
+
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetMillis;
+    private final double backoffRatio;
+    private final double failureRateThreshold;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openMillis;
+    private final int halfOpenProbes;
+    private final double timeoutMultiplier;
+    private final long minTimeoutMillis;
+    private final int maxRetries;
+    private final double retryRatio;
+    private final double retryBudgetMax;
+    private final long retryBackoffMillis;
+
+    public PlannerResilienceConfig(FileConfiguration config) {
+        this.enabled = config.getBoolean("ai.remote.resilience.enabled", true);
+        this.minLimit = Math.max(1, config.getInt("ai.remote.resilience.min-limit", 1));
+        this.maxLimit = Math.max(minLimit, config.getInt("ai.remote.resilience.max-limit", 32));
+        this.initialLimit = Math.max(minLimit, Math.min(maxLimit, config.getInt("ai.remote.resilience.initial-limit", 4)));
+        this.latencyTargetMillis = Math.max(1L, config.getLong("ai.remote.resilience.latency-target-millis", 2000L));
+        this.backoffRatio = Math.max(0.1, Math.min(0.95, config.getDouble("ai.remote.resilience.backoff-ratio", 0.7)));
+        this.failureRateThreshold = Math.max(0.05, Math.min(1.0,
+                config.getDouble("ai.remote.resilience.failure-rate-threshold", 0.5)));
+        this.windowSize = Math.max(1, config.getInt("ai.remote.resilience.window-size", 20));
+        this.minimumCalls = Math.max(1, Math.min(windowSize, config.getInt("ai.remote.resilience.minimum-calls", 10)));
+        this.openMillis = Math.max(100L, config.getLong("ai.remote.resilience.open-millis", 15000L));
+        this.halfOpenProbes = Math.max(1, config.getInt("ai.remote.resilience.half-open-probes", 2));
+        this.timeoutMultiplier = Math.max(1.0, config.getDouble("ai.remote.resilience.timeout-multiplier", 1.5));
+        this.minTimeoutMillis = Math.max(50L, config.getLong("ai.remote.resilience.min-timeout-millis", 500L));
+        this.maxRetries = Math.max(0, config.getInt("ai.remote.resilience.max-retries", 1));
+        this.retryRatio = Math.max(0.0, config.getDouble("ai.remote.resilience.retry-ratio", 0.1));
+        this.retryBudgetMax = Math.max(0.0, config.getDouble("ai.remote.resilience.retry-budget-max", 5.0));
+        this.retryBackoffMillis = Math.max(1L, config.getLong("ai.remote.resilience.retry-backoff-millis", 200L));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public long getLatencyTargetMillis() {
+        return latencyTargetMillis;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    public double getTimeoutMultiplier() {
+        return timeoutMultiplier;
+    }
+
+    public long getMinTimeoutMillis() {
+        return minTimeoutMillis;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public double getRetryRatio() {
+        return retryRatio;
+    }
+
+    public double getRetryBudgetMax() {
+        return retryBudgetMax;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+}
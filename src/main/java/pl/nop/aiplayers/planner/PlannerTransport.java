@@ -0,0 +1,18 @@
+package pl.nop.aiplayers.planner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public interface PlannerTransport {
+
+    CompletableFuture<Boolean> send(String label, String requestId, String payload, Consumer<String> actionSink);
+
+    String describe();
+
+    default boolean isAvailable() {
+        return true;
+    }
+
+    default void shutdown() {
+    }
+}
@@ -0,0 +1,8 @@
+package pl.nop.aiplayers.planner;
+
+public class PlannerUnavailableException extends RuntimeException {
+
+    public PlannerUnavailableException(String message) {
+        super(message);
+    }
+}
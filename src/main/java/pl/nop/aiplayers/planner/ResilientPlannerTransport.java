@@ -0,0 +1,260 @@
+package pl.nop.aiplayers.planner;
+
+import org.bukkit.plugin.Plugin;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class ResilientPlannerTransport implements PlannerTransport {
+
+    private static final long SHED_LOG_INTERVAL_MILLIS = 30000L;
+    private static final int LATENCY_SAMPLES = 256;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private final Plugin plugin;
+    private final PlannerTransport delegate;
+    private final PlannerResilienceConfig config;
+    private final long requestTimeoutMillis;
+    private final AimdLimiter limiter;
+    private final CircuitBreaker breaker;
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyIndex;
+    private int latencyCount;
+    private double retryTokens;
+    private volatile long timeoutMillis;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong shedCount = new AtomicLong();
+    private final AtomicLong openRejectedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong lastShedLogAt = new AtomicLong();
+
+    public ResilientPlannerTransport(Plugin plugin, PlannerTransport delegate, PlannerResilienceConfig config,
+                                     Duration requestTimeout) {
+        this.plugin = plugin;
+        this.delegate = delegate;
+        this.config = config;
+        this.requestTimeoutMillis = requestTimeout.toMillis();
+        this.timeoutMillis = requestTimeoutMillis;
+        this.limiter = new AimdLimiter(config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(),
+                config.getBackoffRatio(), config.getLatencyTargetMillis());
+        this.breaker = new CircuitBreaker(config.getFailureRateThreshold(), config.getWindowSize(), config.getMinimumCalls(),
+                config.getOpenMillis(), config.getHalfOpenProbes());
+    }
+
+    @Override
+    public String describe() {
+        return delegate.describe();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> send(String label, String requestId, String payload, Consumer<String> actionSink) {
+        requestCount.incrementAndGet();
+        synchronized (latencies) {
+            retryTokens = Math.min(config.getRetryBudgetMax(), retryTokens + config.getRetryRatio());
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        attempt(label, requestId, payload, actionSink, result, 0);
+        return result;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return limiter.hasCapacity() && breaker.isAccepting(System.currentTimeMillis());
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return breaker.getState();
+    }
+
+    public long getCircuitOpenedCount() {
+        return breaker.getOpenedCount();
+    }
+
+    public double getLimit() {
+        return limiter.getLimit();
+    }
+
+    public int getInFlight() {
+        return limiter.getInFlight();
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getShedCount() {
+        return shedCount.get();
+    }
+
+    public long getOpenRejectedCount() {
+        return openRejectedCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    private void attempt(String label, String requestId, String payload, Consumer<String> actionSink,
+                         CompletableFuture<Boolean> result, int attempt) {
+        if (!limiter.tryAcquire()) {
+            shedCount.incrementAndGet();
+            String message = label + " request " + requestId + " shed: planner concurrency limit "
+                    + String.format("%.1f", limiter.getLimit()) + " reached.";
+            logShed(message);
+            reject(result, attempt, message);
+            return;
+        }
+        if (!breaker.tryAcquire(System.currentTimeMillis())) {
+            limiter.release();
+            openRejectedCount.incrementAndGet();
+            String message = label + " request " + requestId + " skipped: planner circuit is " + breaker.getState() + ".";
+            logShed(message);
+            reject(result, attempt, message);
+            return;
+        }
+        String attemptId = attempt == 0 ? requestId : requestId + "-retry" + attempt;
+        long startNanos = System.nanoTime();
+        AtomicBoolean settled = new AtomicBoolean();
+        AtomicBoolean delivered = new AtomicBoolean();
+        Consumer<String> guardedSink = json -> {
+            if (!settled.get()) {
+                delivered.set(true);
+                actionSink.accept(json);
+            }
+        };
+        CompletableFuture<Boolean> call;
+        try {
+            call = delegate.send(label, attemptId, payload, guardedSink);
+        } catch (RuntimeException ex) {
+            call = CompletableFuture.completedFuture(false);
+        }
+        long timeout = breaker.getState() == CircuitBreaker.State.HALF_OPEN ? requestTimeoutMillis : timeoutMillis;
+        call.whenComplete((success, ex) -> {
+            limiter.release();
+            if (!settled.compareAndSet(false, true)) {
+                return;
+            }
+            long latencyMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+            if (ex == null && Boolean.TRUE.equals(success)) {
+                onSuccess(latencyMillis);
+                result.complete(true);
+                return;
+            }
+            failureCount.incrementAndGet();
+            onFailure(label, requestId, payload, actionSink, result, attempt, delivered.get());
+        });
+        CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS).execute(() -> {
+            if (!settled.compareAndSet(false, true)) {
+                return;
+            }
+            timeoutCount.incrementAndGet();
+            recordLatency(timeout);
+            PlannerLog.info(plugin, label + " request " + attemptId + " timed out after adaptive timeout " + timeout + "ms.");
+            onFailure(label, requestId, payload, actionSink, result, attempt, delivered.get());
+        });
+    }
+
+    private void reject(CompletableFuture<Boolean> result, int attempt, String message) {
+        if (attempt == 0) {
+            result.completeExceptionally(new PlannerUnavailableException(message));
+        } else {
+            result.complete(false);
+        }
+    }
+
+    private void onSuccess(long latencyMillis) {
+        limiter.onSuccess(latencyMillis);
+        recordLatency(latencyMillis);
+        if (breaker.onSuccess()) {
+            PlannerLog.warning(plugin, "Planner circuit for " + describe() + " closed after successful probes.");
+        }
+    }
+
+    private void onFailure(String label, String requestId, String payload, Consumer<String> actionSink,
+                           CompletableFuture<Boolean> result, int attempt, boolean delivered) {
+        limiter.onDrop();
+        if (breaker.onFailure(System.currentTimeMillis())) {
+            resetTimeout();
+            PlannerLog.warning(plugin, "Planner circuit for " + describe() + " opened for " + config.getOpenMillis()
+                    + "ms; planner calls are skipped until a probe succeeds.");
+        }
+        if (delivered || attempt >= config.getMaxRetries() || !takeRetryToken()) {
+            result.complete(false);
+            return;
+        }
+        retryCount.incrementAndGet();
+        long ceiling = config.getRetryBackoffMillis() << attempt;
+        long backoff = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS)
+                .execute(() -> attempt(label, requestId, payload, actionSink, result, attempt + 1));
+    }
+
+    private boolean takeRetryToken() {
+        synchronized (latencies) {
+            if (retryTokens < 1.0) {
+                return false;
+            }
+            retryTokens -= 1.0;
+            return true;
+        }
+    }
+
+    private void recordLatency(long latencyMillis) {
+        long[] sorted;
+        synchronized (latencies) {
+            latencies[latencyIndex] = latencyMillis;
+            latencyIndex = (latencyIndex + 1) % latencies.length;
+            latencyCount = Math.min(latencies.length, latencyCount + 1);
+            if (latencyCount < MIN_LATENCY_SAMPLES || latencyIndex % 8 != 0) {
+                return;
+            }
+            sorted = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(sorted);
+        long p99 = sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.99) - 1)];
+        long adaptive = Math.round(p99 * config.getTimeoutMultiplier());
+        timeoutMillis = Math.max(config.getMinTimeoutMillis(), Math.min(requestTimeoutMillis, adaptive));
+    }
+
+    private void resetTimeout() {
+        synchronized (latencies) {
+            latencyIndex = 0;
+            latencyCount = 0;
+            timeoutMillis = requestTimeoutMillis;
+        }
+    }
+
+    private void logShed(String message) {
+        PlannerLog.info(plugin, message);
+        long now = System.currentTimeMillis();
+        long last = lastShedLogAt.get();
+        if (now - last > SHED_LOG_INTERVAL_MILLIS && lastShedLogAt.compareAndSet(last, now)) {
+            plugin.getLogger().warning(message + " Further planner shedding is only logged to file for 30s.");
+        }
+    }
+}
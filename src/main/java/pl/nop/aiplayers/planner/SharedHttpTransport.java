@@ -0,0 +1,224 @@
+package pl.nop.aiplayers.planner;
+
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class SharedHttpTransport {
+
+    private final Plugin plugin;
+    private final SharedHttpTransportConfig config;
+    private final ExecutorService ioExecutor;
+    private final HttpClient client;
+    private final Semaphore inFlight;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public SharedHttpTransport(Plugin plugin, SharedHttpTransportConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.ioExecutor = Executors.newFixedThreadPool(config.getIoThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "AIPlayers-Planner-IO-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(config.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.getConnectTimeout())
+                .executor(ioExecutor)
+                .build();
+        this.inFlight = new Semaphore(config.getMaxInFlight());
+    }
+
+    public HttpClient getClient() {
+        return client;
+    }
+
+    public SharedHttpTransportConfig getConfig() {
+        return config;
+    }
+
+    public <T> CompletableFuture<T> submit(String endpoint, Supplier<CompletableFuture<T>> call, T rejected) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Endpoint target = endpoints.computeIfAbsent(endpoint, ignored -> new Endpoint());
+        QueuedCall queued = new QueuedCall(() -> start(target, call, result), () -> result.complete(rejected));
+        submittedCount.incrementAndGet();
+        boolean accepted;
+        synchronized (target) {
+            accepted = !closed && (target.queue.size() < config.getEndpointQueueCapacity()
+                    || (target.queue.isEmpty() && target.active < config.getMaxInFlightPerEndpoint()
+                    && inFlight.availablePermits() > 0));
+            if (accepted) {
+                target.queue.addLast(queued);
+            }
+        }
+        if (!accepted) {
+            rejectedCount.incrementAndGet();
+            PlannerLog.info(plugin, "Planner HTTP queue for " + endpoint + " is full ("
+                    + config.getEndpointQueueCapacity() + " waiting); request dropped.");
+            result.complete(rejected);
+            return result;
+        }
+        pump();
+        return result;
+    }
+
+    public int getInFlightCount() {
+        return config.getMaxInFlight() - inFlight.availablePermits();
+    }
+
+    public int getQueuedCount() {
+        int queued = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            synchronized (endpoint) {
+                queued += endpoint.queue.size();
+            }
+        }
+        return queued;
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public int getEndpointCount() {
+        return endpoints.size();
+    }
+
+    public void shutdown() {
+        shutdown(Duration.ZERO);
+    }
+
+    public void shutdown(Duration drainTimeout) {
+        closed = true;
+        List<QueuedCall> dropped = new ArrayList<>();
+        for (Endpoint endpoint : endpoints.values()) {
+            synchronized (endpoint) {
+                dropped.addAll(endpoint.queue);
+                endpoint.queue.clear();
+            }
+        }
+        dropped.forEach(queued -> queued.reject.run());
+        int active = getInFlightCount();
+        if (active == 0 || drainTimeout.isZero()) {
+            finish();
+            return;
+        }
+        PlannerLog.info(plugin, "Planner HTTP client closes after its " + active + " in-flight call(s) finish (at most "
+                + drainTimeout.toMillis() + "ms).");
+        CompletableFuture.delayedExecutor(drainTimeout.toMillis(), TimeUnit.MILLISECONDS).execute(this::finish);
+    }
+
+    private void finish() {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        closeClient();
+        ioExecutor.shutdown();
+    }
+
+    private <T> void start(Endpoint target, Supplier<CompletableFuture<T>> call, CompletableFuture<T> result) {
+        CompletableFuture<T> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException ex) {
+            response = CompletableFuture.failedFuture(ex);
+        }
+        response.whenComplete((value, ex) -> {
+            release(target);
+            if (ex != null) {
+                result.completeExceptionally(ex);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private void pump() {
+        boolean progressed = true;
+        while (progressed) {
+            progressed = false;
+            for (Endpoint endpoint : endpoints.values()) {
+                QueuedCall next;
+                synchronized (endpoint) {
+                    if (endpoint.queue.isEmpty() || endpoint.active >= config.getMaxInFlightPerEndpoint()) {
+                        continue;
+                    }
+                    if (!inFlight.tryAcquire()) {
+                        return;
+                    }
+                    next = endpoint.queue.pollFirst();
+                    endpoint.active++;
+                }
+                next.start.run();
+                progressed = true;
+            }
+        }
+    }
+
+    private void release(Endpoint endpoint) {
+        synchronized (endpoint) {
+            endpoint.active--;
+        }
+        inFlight.release();
+        if (!closed) {
+            pump();
+        } else if (getInFlightCount() == 0) {
+            finish();
+        }
+    }
+
+    private void closeClient() {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            PlannerLog.info(plugin, "Java " + javaVersion + " has no HttpClient.shutdown(); the previous planner HTTP client "
+                    + "is released by garbage collection once its in-flight calls finish.");
+            return;
+        }
+        try {
+            Method shutdown = HttpClient.class.getMethod("shutdown");
+            shutdown.invoke(client);
+        } catch (ReflectiveOperationException ex) {
+            PlannerLog.warning(plugin, "Planner HTTP client could not be shut down: " + PlannerLog.describeException(ex));
+        }
+    }
+
+    private static final class Endpoint {
+        private final ArrayDeque<QueuedCall> queue = new ArrayDeque<>();
+        private int active;
+    }
+
+    private static final class QueuedCall {
+        private final Runnable start;
+        private final Runnable reject;
+
+        private QueuedCall(Runnable start, Runnable reject) {
+            this.start = start;
+            this.reject = reject;
+        }
+    }
+}
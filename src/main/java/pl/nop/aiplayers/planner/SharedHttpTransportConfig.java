@@ -0,0 +1,69 @@
+package pl.nop.aiplayers.planner;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.time.Duration;
+import java.util.Objects;
+
+public class SharedHttpTransportConfig {
+
+    private final Duration connectTimeout;
+    private final int ioThreads;
+    private final boolean http2;
+    private final int maxInFlight;
+    private final int maxInFlightPerEndpoint;
+    private final int endpointQueueCapacity;
+
+    public SharedHttpTransportConfig(FileConfiguration config) {
+        this.connectTimeout = Duration.ofMillis(config.getLong("ai.remote.connect-timeout-millis", 2000L));
+        this.ioThreads = Math.max(1, config.getInt("ai.remote.http.io-threads", 2));
+        this.http2 = config.getBoolean("ai.remote.http.http2", true);
+        this.maxInFlight = Math.max(1, config.getInt("ai.remote.http.max-in-flight", 16));
+        this.maxInFlightPerEndpoint = Math.max(1, config.getInt("ai.remote.http.max-in-flight-per-endpoint", 8));
+        this.endpointQueueCapacity = Math.max(0, config.getInt("ai.remote.http.endpoint-queue-capacity", 64));
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getMaxInFlightPerEndpoint() {
+        return maxInFlightPerEndpoint;
+    }
+
+    public int getEndpointQueueCapacity() {
+        return endpointQueueCapacity;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SharedHttpTransportConfig)) {
+            return false;
+        }
+        SharedHttpTransportConfig that = (SharedHttpTransportConfig) other;
+        return ioThreads == that.ioThreads && http2 == that.http2 && maxInFlight == that.maxInFlight
+                && maxInFlightPerEndpoint == that.maxInFlightPerEndpoint
+                && endpointQueueCapacity == that.endpointQueueCapacity
+                && connectTimeout.equals(that.connectTimeout);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(connectTimeout, ioThreads, http2, maxInFlight, maxInFlightPerEndpoint, endpointQueueCapacity);
+    }
+}
@@ -0,0 +1,40 @@
+package pl.nop.aiplayers.planner;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.time.Duration;
+
+public class UnixSocketPlannerConfig {
+
+    private final String socketPath;
+    private final int maxFrameBytes;
+    private final long reconnectDelayMillis;
+    private final Duration requestTimeout;
+
+    public UnixSocketPlannerConfig(FileConfiguration config) {
+        String configuredSocketPath = config.getString("ai.remote.unix-socket.path", "/tmp/aiplayers-planner.sock");
+        if (configuredSocketPath == null || configuredSocketPath.isBlank()) {
+            configuredSocketPath = "/tmp/aiplayers-planner.sock";
+        }
+        this.socketPath = configuredSocketPath;
+        this.maxFrameBytes = Math.max(1024, config.getInt("ai.remote.unix-socket.max-frame-bytes", 1048576));
+        this.reconnectDelayMillis = Math.max(0L, config.getLong("ai.remote.unix-socket.reconnect-delay-millis", 1000L));
+        this.requestTimeout = Duration.ofMillis(config.getLong("ai.remote.request-timeout-millis", 5000L));
+    }
+
+    public String getSocketPath() {
+        return socketPath;
+    }
+
+    public int getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    public long getReconnectDelayMillis() {
+        return reconnectDelayMillis;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+}
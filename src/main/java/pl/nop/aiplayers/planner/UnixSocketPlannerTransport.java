@@ -0,0 +1,240 @@
+package pl.nop.aiplayers.planner;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class UnixSocketPlannerTransport implements PlannerTransport {
+
+    private final Plugin plugin;
+    private final UnixSocketPlannerConfig config;
+    private final ExecutorService writer;
+    private final Map<String, PendingRequest> pending = new ConcurrentHashMap<>();
+    private final Object connectionLock = new Object();
+    private SocketChannel channel;
+    private long lastFailureMillis;
+    private volatile boolean closed;
+
+    public UnixSocketPlannerTransport(Plugin plugin, UnixSocketPlannerConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AIPlayers-Planner-Sidecar-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String describe() {
+        return "unix:" + config.getSocketPath();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> send(String label, String requestId, String payload, Consumer<String> actionSink) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        JsonObject frame = new JsonObject();
+        try {
+            frame.addProperty("request_id", requestId);
+            frame.addProperty("label", label);
+            frame.add("request", JsonParser.parseString(payload));
+        } catch (JsonParseException ex) {
+            result.complete(false);
+            return result;
+        }
+        PendingRequest request = new PendingRequest(label, actionSink, result);
+        pending.put(requestId, request);
+        long timeoutMillis = config.getRequestTimeout().toMillis();
+        result.completeOnTimeout(false, timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((success, ex) -> pending.remove(requestId, request));
+        PlannerLog.info(plugin, label + " request " + requestId + " payload: " + payload);
+        try {
+            writer.execute(() -> write(label, requestId, frame.toString()));
+        } catch (RejectedExecutionException ex) {
+            result.complete(false);
+        }
+        return result;
+    }
+
+    @Override
+    public void shutdown() {
+        closed = true;
+        writer.shutdownNow();
+        SocketChannel current;
+        synchronized (connectionLock) {
+            current = channel;
+        }
+        if (current != null) {
+            disconnect(current, null);
+        }
+        failPending();
+    }
+
+    private void write(String label, String requestId, String frame) {
+        if (pending.get(requestId) == null) {
+            return;
+        }
+        SocketChannel current = null;
+        try {
+            current = connection();
+            PlannerFrames.write(current, frame);
+        } catch (IOException ex) {
+            PlannerLog.warning(plugin, label + " sidecar request " + requestId + " to " + describe() + " failed: "
+                    + PlannerLog.describeException(ex));
+            PendingRequest request = pending.remove(requestId);
+            if (request != null) {
+                request.result.complete(false);
+            }
+            if (current != null) {
+                disconnect(current, ex);
+            }
+        }
+    }
+
+    private SocketChannel connection() throws IOException {
+        synchronized (connectionLock) {
+            if (channel != null && channel.isOpen()) {
+                return channel;
+            }
+            if (closed) {
+                throw new IOException("planner transport closed");
+            }
+            long sinceFailure = System.currentTimeMillis() - lastFailureMillis;
+            if (sinceFailure < config.getReconnectDelayMillis()) {
+                throw new IOException("sidecar unavailable, next connect attempt in "
+                        + (config.getReconnectDelayMillis() - sinceFailure) + "ms");
+            }
+            SocketChannel opened = SocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                opened.connect(UnixDomainSocketAddress.of(Path.of(config.getSocketPath())));
+            } catch (IOException ex) {
+                lastFailureMillis = System.currentTimeMillis();
+                opened.close();
+                throw ex;
+            }
+            channel = opened;
+            Thread reader = new Thread(() -> readLoop(opened), "AIPlayers-Planner-Sidecar-Reader");
+            reader.setDaemon(true);
+            reader.start();
+            PlannerLog.info(plugin, "Planner sidecar connected on " + describe() + ".");
+            return opened;
+        }
+    }
+
+    private void readLoop(SocketChannel current) {
+        IOException failure = null;
+        try {
+            while (!closed) {
+                String frame = PlannerFrames.read(current, config.getMaxFrameBytes());
+                try {
+                    dispatch(frame);
+                } catch (RuntimeException ex) {
+                    PlannerLog.warning(plugin, "Planner sidecar frame could not be handled: " + PlannerLog.describeException(ex));
+                }
+            }
+        } catch (IOException ex) {
+            failure = ex;
+        } finally {
+            disconnect(current, closed ? null : failure);
+        }
+    }
+
+    private void dispatch(String frame) {
+        JsonObject response;
+        try {
+            response = JsonParser.parseString(frame).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException ex) {
+            PlannerLog.info(plugin, "Planner sidecar skipped malformed frame: " + ex.getMessage());
+            return;
+        }
+        JsonElement id = response.get("request_id");
+        String requestId = id != null && id.isJsonPrimitive() ? id.getAsString() : null;
+        PendingRequest request = requestId == null ? null : pending.get(requestId);
+        if (request == null) {
+            PlannerLog.info(plugin, "Planner sidecar frame for unknown or expired request " + requestId + " ignored.");
+            return;
+        }
+        PlannerLog.info(plugin, request.label + " response " + requestId + " frame: " + frame);
+        JsonArray actions = response.has("actions") && response.get("actions").isJsonArray()
+                ? response.getAsJsonArray("actions")
+                : null;
+        if (actions != null) {
+            try {
+                for (JsonElement action : actions) {
+                    request.sink.accept(action.toString());
+                }
+            } catch (RuntimeException ex) {
+                PlannerLog.warning(plugin, request.label + " response " + requestId + " action failed: "
+                        + PlannerLog.describeException(ex));
+                request.result.complete(false);
+                return;
+            }
+        }
+        JsonElement finalFlag = response.get("final");
+        boolean last = finalFlag == null || !finalFlag.isJsonPrimitive() || !finalFlag.getAsJsonPrimitive().isBoolean()
+                || finalFlag.getAsBoolean();
+        if (last) {
+            request.result.complete(true);
+        }
+    }
+
+    private void disconnect(SocketChannel current, IOException cause) {
+        boolean wasActive;
+        synchronized (connectionLock) {
+            wasActive = channel == current;
+            if (wasActive) {
+                channel = null;
+                lastFailureMillis = System.currentTimeMillis();
+            }
+        }
+        try {
+            current.close();
+        } catch (IOException ignored) {
+        }
+        if (!wasActive) {
+            return;
+        }
+        if (cause != null) {
+            PlannerLog.warning(plugin, "Planner sidecar connection on " + describe() + " lost: "
+                    + PlannerLog.describeException(cause));
+        }
+        failPending();
+    }
+
+    private void failPending() {
+        List<PendingRequest> failed = new ArrayList<>(pending.values());
+        pending.clear();
+        failed.forEach(request -> request.result.complete(false));
+    }
+
+    private static final class PendingRequest {
+        private final String label;
+        private final Consumer<String> sink;
+        private final CompletableFuture<Boolean> result;
+
+        private PendingRequest(String label, Consumer<String> sink, CompletableFuture<Boolean> result) {
+            this.label = label;
+            this.sink = sink;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package pl.nop.aiplayers.planner;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.time.Duration;
+
+public class WebSocketPlannerConfig {
+
+    private final String url;
+    private final String authToken;
+    private final String serverId;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final int maxPending;
+    private final int maxUnacked;
+    private final long reconnectMinMillis;
+    private final long reconnectMaxMillis;
+    private final int botStateIntervalTicks;
+
+    public WebSocketPlannerConfig(FileConfiguration config) {
+        this.url = config.getString("ai.remote.websocket.url", "ws://localhost:8080/v1/ws");
+        this.authToken = config.getString("ai.remote.websocket.auth-token", "");
+        this.serverId = config.getString("ai.remote.server-id", "betterbox-1");
+        this.connectTimeout = Duration.ofMillis(config.getLong("ai.remote.connect-timeout-millis", 2000L));
+        this.requestTimeout = Duration.ofMillis(config.getLong("ai.remote.request-timeout-millis", 5000L));
+        this.maxPending = Math.max(1, config.getInt("ai.remote.websocket.max-pending", 256));
+        this.maxUnacked = Math.max(1, config.getInt("ai.remote.websocket.max-unacked", 512));
+        this.reconnectMinMillis = Math.max(100L, config.getLong("ai.remote.websocket.reconnect-min-millis", 1000L));
+        this.reconnectMaxMillis = Math.max(reconnectMinMillis,
+                config.getLong("ai.remote.websocket.reconnect-max-millis", 30000L));
+        this.botStateIntervalTicks = Math.max(1, config.getInt("ai.remote.websocket.bot-state-interval-ticks", 20));
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getAuthToken() {
+        return authToken;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public int getMaxUnacked() {
+        return maxUnacked;
+    }
+
+    public long getReconnectMinMillis() {
+        return reconnectMinMillis;
+    }
+
+    public long getReconnectMaxMillis() {
+        return reconnectMaxMillis;
+    }
+
+    public int getBotStateIntervalTicks() {
+        return botStateIntervalTicks;
+    }
+}
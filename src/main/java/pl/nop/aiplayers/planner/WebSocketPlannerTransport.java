@@ -0,0 +1,581 @@
+package pl.nop.aiplayers.planner;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import pl.nop.aiplayers.chat.AIChatService;
+import pl.nop.aiplayers.manager.AIPlayerManager;
+import pl.nop.aiplayers.model.AIPlayerSession;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class WebSocketPlannerTransport implements PlannerTransport {
+
+    private static final String PROTOCOL = "aiplayers-planner-ws-v1";
+
+    private final Plugin plugin;
+    private final AIPlayerManager manager;
+    private final WebSocketPlannerConfig config;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    private final Deque<Outbound> queue = new ArrayDeque<>();
+    private final Deque<Outbound> unacked = new ArrayDeque<>();
+    private final Map<String, PendingPlan> pendingPlans = new HashMap<>();
+    private final Map<String, String> lastBotStates = new HashMap<>();
+    private volatile Consumer<String> pushHandler = action -> { };
+    private WebSocket webSocket;
+    private BukkitTask botStateTask;
+    private boolean ready;
+    private boolean sending;
+    private boolean closed;
+    private long lastSentSeq;
+    private long lastInboundSeq;
+    private long ackedInboundSeq;
+    private long reconnectDelayMillis;
+    private long reconnectCount;
+    private long droppedEvents;
+
+    public WebSocketPlannerTransport(Plugin plugin, AIPlayerManager manager, WebSocketPlannerConfig config,
+                                     HttpClient httpClient) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.config = config;
+        this.httpClient = httpClient;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AIPlayers-Planner-WebSocket");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reconnectDelayMillis = config.getReconnectMinMillis();
+    }
+
+    public void start() {
+        int interval = config.getBotStateIntervalTicks();
+        botStateTask = Bukkit.getScheduler().runTaskTimer(plugin, this::publishBotStates, interval, interval);
+        connect();
+    }
+
+    public void setPushHandler(Consumer<String> pushHandler) {
+        this.pushHandler = pushHandler == null ? action -> { } : pushHandler;
+    }
+
+    @Override
+    public String describe() {
+        return config.getUrl();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> send(String label, String requestId, String payload, Consumer<String> actionSink) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        JsonElement request;
+        try {
+            request = JsonParser.parseString(payload);
+        } catch (JsonParseException ex) {
+            result.complete(false);
+            return result;
+        }
+        synchronized (lock) {
+            String rejection = null;
+            if (closed || !ready) {
+                rejection = "planner channel not connected";
+            } else if (unacked.size() >= config.getMaxUnacked() || queue.size() >= config.getMaxPending()) {
+                rejection = "planner channel backlogged (" + unacked.size() + " unacked, " + queue.size() + " queued)";
+            }
+            if (rejection != null) {
+                PlannerLog.info(plugin, label + " request " + requestId + " rejected: " + rejection);
+                result.complete(false);
+                return result;
+            }
+            JsonObject body = new JsonObject();
+            body.addProperty("type", "plan");
+            body.addProperty("label", label);
+            body.addProperty("request_id", requestId);
+            body.add("request", request);
+            pendingPlans.put(requestId, new PendingPlan(actionSink, result));
+            queue.addLast(new Outbound(body, true, true));
+        }
+        PlannerLog.info(plugin, label + " request " + requestId + " queued on planner channel: " + payload);
+        long timeoutMillis = config.getRequestTimeout().toMillis();
+        try {
+            scheduler.schedule(() -> {
+                if (completePlan(requestId, false)) {
+                    PlannerLog.info(plugin, label + " request " + requestId + " timed out after " + timeoutMillis + "ms");
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            completePlan(requestId, false);
+        }
+        drain();
+        return result;
+    }
+
+    public void publishChat(AIChatService.ChatEntry entry) {
+        JsonObject line = new JsonObject();
+        line.addProperty("ts_ms", entry.getTimestampMillis());
+        line.addProperty("sequence", entry.getSequence());
+        line.addProperty("sender", entry.getSender());
+        line.addProperty("sender_type", entry.getSenderType().name());
+        line.addProperty("message", entry.getMessage());
+        JsonObject body = new JsonObject();
+        body.addProperty("type", "chat");
+        body.add("entry", line);
+        enqueueEvent(body);
+    }
+
+    public boolean isConnected() {
+        synchronized (lock) {
+            return ready;
+        }
+    }
+
+    public int getUnackedCount() {
+        synchronized (lock) {
+            return unacked.size();
+        }
+    }
+
+    public int getQueuedCount() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    public long getReconnectCount() {
+        synchronized (lock) {
+            return reconnectCount;
+        }
+    }
+
+    public long getDroppedEvents() {
+        synchronized (lock) {
+            return droppedEvents;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        WebSocket current;
+        boolean busy;
+        synchronized (lock) {
+            closed = true;
+            ready = false;
+            current = webSocket;
+            webSocket = null;
+            busy = sending;
+        }
+        if (botStateTask != null) {
+            botStateTask.cancel();
+            botStateTask = null;
+        }
+        scheduler.shutdownNow();
+        failPendingPlans();
+        if (current != null) {
+            if (busy) {
+                current.abort();
+            } else {
+                current.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+            }
+        }
+    }
+
+    private void publishBotStates() {
+        Map<String, String> current = new HashMap<>();
+        JsonArray changed = new JsonArray();
+        for (AIPlayerSession session : manager.getAllSessions()) {
+            Location location = session.getNpcHandle().getLocation();
+            String botId = session.getProfile().getUuid().toString();
+            String world = location == null || location.getWorld() == null ? "" : location.getWorld().getName();
+            String state = session.getProfile().getName() + "|" + world + "|" + session.isDormant();
+            current.put(botId, state);
+            if (state.equals(lastBotStates.get(botId))) {
+                continue;
+            }
+            JsonObject bot = new JsonObject();
+            bot.addProperty("bot_id", botId);
+            bot.addProperty("name", session.getProfile().getName());
+            bot.addProperty("world", world);
+            bot.addProperty("dormant", session.isDormant());
+            changed.add(bot);
+        }
+        JsonArray left = new JsonArray();
+        for (String botId : lastBotStates.keySet()) {
+            if (!current.containsKey(botId)) {
+                left.add(botId);
+            }
+        }
+        lastBotStates.clear();
+        lastBotStates.putAll(current);
+        if (changed.size() == 0 && left.size() == 0) {
+            return;
+        }
+        JsonObject body = new JsonObject();
+        body.addProperty("type", "bots");
+        body.add("changed", changed);
+        body.add("left", left);
+        enqueueEvent(body);
+    }
+
+    private void enqueueEvent(JsonObject body) {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            while (queue.size() >= config.getMaxPending()) {
+                if (!dropOldestEvent()) {
+                    droppedEvents++;
+                    return;
+                }
+            }
+            queue.addLast(new Outbound(body, true, false));
+        }
+        drain();
+    }
+
+    private boolean dropOldestEvent() {
+        Iterator<Outbound> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Outbound outbound = iterator.next();
+            if (!outbound.plan && outbound.seq == 0L) {
+                iterator.remove();
+                droppedEvents++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void connect() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+        }
+        WebSocket.Builder builder = httpClient.newWebSocketBuilder().connectTimeout(config.getConnectTimeout());
+        if (config.getAuthToken() != null && !config.getAuthToken().isBlank()) {
+            builder.header("Authorization", "Bearer " + config.getAuthToken());
+        }
+        builder.buildAsync(URI.create(config.getUrl()), new ChannelListener())
+                .whenComplete((socket, ex) -> {
+                    if (ex != null) {
+                        PlannerLog.info(plugin, "Planner channel connect to " + config.getUrl() + " failed: "
+                                + PlannerLog.describeException(ex));
+                        scheduleReconnect();
+                    }
+                });
+    }
+
+    private void onOpen(WebSocket socket) {
+        JsonObject hello = new JsonObject();
+        hello.addProperty("type", "hello");
+        hello.addProperty("protocol", PROTOCOL);
+        hello.addProperty("server_id", config.getServerId());
+        synchronized (lock) {
+            if (closed) {
+                socket.abort();
+                return;
+            }
+            webSocket = socket;
+            ready = false;
+            sending = true;
+            hello.addProperty("last_received_seq", lastInboundSeq);
+            hello.addProperty("last_sent_seq", lastSentSeq);
+        }
+        socket.sendText(hello.toString(), true).whenComplete((ignored, ex) -> {
+            synchronized (lock) {
+                sending = false;
+            }
+            if (ex != null) {
+                onDisconnect(socket, "hello failed: " + PlannerLog.describeException(ex));
+            }
+        });
+        socket.request(1);
+        PlannerLog.info(plugin, "Planner channel connected to " + config.getUrl() + ", waiting for welcome.");
+    }
+
+    private void onMessage(WebSocket socket, String text) {
+        JsonObject message;
+        try {
+            message = JsonParser.parseString(text).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException ex) {
+            PlannerLog.info(plugin, "Planner channel skipped malformed message: " + ex.getMessage());
+            return;
+        }
+        String type = stringField(message, "type");
+        if (isNumber(message.get("seq"))) {
+            long seq = message.get("seq").getAsLong();
+            synchronized (lock) {
+                if (seq <= lastInboundSeq) {
+                    return;
+                }
+                lastInboundSeq = seq;
+            }
+        }
+        switch (type == null ? "" : type) {
+            case "welcome":
+                onWelcome(isNumber(message.get("resume_from")) ? message.get("resume_from").getAsLong() : 1L);
+                break;
+            case "ack":
+                onAck(isNumber(message.get("ack")) ? message.get("ack").getAsLong() : 0L);
+                break;
+            case "action":
+                onAction(message);
+                break;
+            case "done":
+                String doneId = stringField(message, "request_id");
+                if (doneId != null) {
+                    completePlan(doneId, true);
+                }
+                break;
+            default:
+                break;
+        }
+        drain();
+    }
+
+    private void onWelcome(long resumeFrom) {
+        int replayed = 0;
+        synchronized (lock) {
+            while (!unacked.isEmpty() && unacked.peekFirst().seq < resumeFrom) {
+                unacked.pollFirst();
+            }
+            while (!unacked.isEmpty()) {
+                queue.addFirst(unacked.pollLast());
+                replayed++;
+            }
+            ready = true;
+            reconnectDelayMillis = config.getReconnectMinMillis();
+        }
+        PlannerLog.info(plugin, "Planner channel ready (resume from " + resumeFrom + ", replaying " + replayed + " message(s)).");
+    }
+
+    private void onAck(long seq) {
+        synchronized (lock) {
+            while (!unacked.isEmpty() && unacked.peekFirst().seq <= seq) {
+                unacked.pollFirst();
+            }
+        }
+    }
+
+    private void onAction(JsonObject message) {
+        JsonElement element = message.get("action");
+        if (element == null || !element.isJsonObject()) {
+            return;
+        }
+        JsonObject action = element.getAsJsonObject();
+        String requestId = stringField(message, "request_id");
+        PendingPlan pending;
+        synchronized (lock) {
+            pending = requestId == null ? null : pendingPlans.get(requestId);
+        }
+        if (pending != null) {
+            try {
+                pending.sink.accept(action.toString());
+            } catch (RuntimeException ex) {
+                PlannerLog.warning(plugin, "Planner channel action for " + requestId + " failed: "
+                        + PlannerLog.describeException(ex));
+                completePlan(requestId, false);
+            }
+            return;
+        }
+        PlannerLog.info(plugin, "Planner channel pushed action: " + action);
+        try {
+            pushHandler.accept(action.toString());
+        } catch (RuntimeException ex) {
+            PlannerLog.warning(plugin, "Planner channel pushed action failed: " + PlannerLog.describeException(ex));
+        }
+    }
+
+    private static String stringField(JsonObject message, String name) {
+        JsonElement element = message.get(name);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+
+    private static boolean isNumber(JsonElement element) {
+        return element != null && element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber();
+    }
+
+    private void drain() {
+        WebSocket socket;
+        String text;
+        synchronized (lock) {
+            if (sending || webSocket == null || !ready) {
+                return;
+            }
+            if (lastInboundSeq > ackedInboundSeq) {
+                JsonObject ack = new JsonObject();
+                ack.addProperty("type", "ack");
+                ack.addProperty("ack", lastInboundSeq);
+                ackedInboundSeq = lastInboundSeq;
+                text = ack.toString();
+            } else {
+                if (unacked.size() >= config.getMaxUnacked()) {
+                    return;
+                }
+                Outbound next = queue.pollFirst();
+                if (next == null) {
+                    return;
+                }
+                if (next.seq == 0L) {
+                    next.seq = ++lastSentSeq;
+                }
+                unacked.addLast(next);
+                text = next.encode();
+            }
+            sending = true;
+            socket = webSocket;
+        }
+        socket.sendText(text, true).whenComplete((ignored, ex) -> {
+            synchronized (lock) {
+                sending = false;
+            }
+            if (ex != null) {
+                onDisconnect(socket, "send failed: " + PlannerLog.describeException(ex));
+                return;
+            }
+            drain();
+        });
+    }
+
+    private void onDisconnect(WebSocket socket, String reason) {
+        synchronized (lock) {
+            if (webSocket != socket) {
+                return;
+            }
+            webSocket = null;
+            ready = false;
+            sending = false;
+        }
+        PlannerLog.info(plugin, "Planner channel disconnected: " + reason);
+        failPendingPlans();
+        scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+        long delay;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            reconnectCount++;
+            delay = reconnectDelayMillis + ThreadLocalRandom.current().nextLong(reconnectDelayMillis / 2 + 1);
+            reconnectDelayMillis = Math.min(config.getReconnectMaxMillis(), reconnectDelayMillis * 2);
+        }
+        try {
+            scheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    private boolean completePlan(String requestId, boolean success) {
+        PendingPlan pending;
+        synchronized (lock) {
+            pending = pendingPlans.remove(requestId);
+        }
+        if (pending == null) {
+            return false;
+        }
+        pending.result.complete(success);
+        return true;
+    }
+
+    private void failPendingPlans() {
+        Map<String, PendingPlan> failed;
+        synchronized (lock) {
+            failed = new HashMap<>(pendingPlans);
+            pendingPlans.clear();
+            queue.removeIf(outbound -> outbound.plan);
+            unacked.removeIf(outbound -> outbound.plan);
+        }
+        failed.values().forEach(pending -> pending.result.complete(false));
+    }
+
+    private final class ChannelListener implements WebSocket.Listener {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public void onOpen(WebSocket socket) {
+            WebSocketPlannerTransport.this.onOpen(socket);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            buffer.append(data);
+            try {
+                if (last) {
+                    String text = buffer.toString();
+                    buffer.setLength(0);
+                    onMessage(socket, text);
+                }
+            } catch (RuntimeException ex) {
+                PlannerLog.warning(plugin, "Planner channel message could not be handled: " + PlannerLog.describeException(ex));
+            } finally {
+                socket.request(1);
+            }
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket socket, int statusCode, String reason) {
+            String details = reason == null || reason.isBlank() ? "" : ", " + reason;
+            onDisconnect(socket, "closed by planner (" + statusCode + details + ")");
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket socket, Throwable error) {
+            onDisconnect(socket, PlannerLog.describeException(error));
+        }
+    }
+
+    private static final class Outbound {
+        private final JsonObject body;
+        private final boolean sequenced;
+        private final boolean plan;
+        private long seq;
+
+        private Outbound(JsonObject body, boolean sequenced, boolean plan) {
+            this.body = body;
+            this.sequenced = sequenced;
+            this.plan = plan;
+        }
+
+        private String encode() {
+            if (sequenced) {
+                body.addProperty("seq", seq);
+            }
+            return body.toString();
+        }
+    }
+
+    private static final class PendingPlan {
+        private final Consumer<String> sink;
+        private final CompletableFuture<Boolean> result;
+
+        private PendingPlan(Consumer<String> sink, CompletableFuture<Boolean> result) {
+            this.sink = sink;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package pl.nop.aiplayers.spatial;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.util.Collection;
+
+public class PlayerPositionListener implements Listener {
+
+    private final SpatialIndex<String> playerIndex;
+
+    public PlayerPositionListener(SpatialIndex<String> playerIndex) {
+        this.playerIndex = playerIndex;
+    }
+
+    public void trackOnlinePlayers(Collection<? extends Player> players) {
+        for (Player player : players) {
+            track(player, player.getLocation());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        track(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        playerIndex.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (to == null || (from.getX() == to.getX() && from.getY() == to.getY() && from.getZ() == to.getZ()
+                && from.getWorld() == to.getWorld())) {
+            return;
+        }
+        track(event.getPlayer(), to);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        track(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        track(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    private void track(Player player, Location location) {
+        playerIndex.update(player.getUniqueId(), player.getName(), location);
+    }
+}
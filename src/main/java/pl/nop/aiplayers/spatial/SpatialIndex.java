@@ -0,0 +1,214 @@
+package pl.nop.aiplayers.spatial;
+
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SpatialIndex<V> {
+
+    private final double cellSize;
+    private final Map<String, Map<Long, Map<UUID, Entry<V>>>> worlds = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    public SpatialIndex(double cellSize) {
+        this.cellSize = Math.max(1.0, cellSize);
+    }
+
+    public void update(UUID id, V value, Location location) {
+        if (location == null || location.getWorld() == null) {
+            remove(id);
+            return;
+        }
+        update(id, value, location.getWorld().getName(), location.getX(), location.getY(), location.getZ());
+    }
+
+    public void update(UUID id, V value, String world, double x, double y, double z) {
+        long cell = cellKey(cellCoord(x), cellCoord(z));
+        put(new Entry<>(id, value, world, x, y, z, cell));
+        version.incrementAndGet();
+    }
+
+    public void remove(UUID id) {
+        Entry<V> previous = entries.remove(id);
+        if (previous != null) {
+            removeFromCell(previous);
+            version.incrementAndGet();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        worlds.clear();
+        version.incrementAndGet();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public SpatialIndex<V> copy() {
+        SpatialIndex<V> copy = new SpatialIndex<>(cellSize);
+        for (Entry<V> entry : entries.values()) {
+            copy.put(entry);
+        }
+        return copy;
+    }
+
+    public List<Hit<V>> queryRange(String world, double x, double y, double z, double radius, UUID exclude) {
+        Map<Long, Map<UUID, Entry<V>>> cells = worlds.get(world);
+        if (cells == null || radius < 0) {
+            return Collections.emptyList();
+        }
+        double radiusSquared = radius * radius;
+        List<Hit<V>> hits = new ArrayList<>();
+        int minX = cellCoord(x - radius);
+        int maxX = cellCoord(x + radius);
+        int minZ = cellCoord(z - radius);
+        int maxZ = cellCoord(z + radius);
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                collect(cells.get(cellKey(cx, cz)), x, y, z, radiusSquared, exclude, hits);
+            }
+        }
+        return hits;
+    }
+
+    public List<Hit<V>> nearest(String world, double x, double y, double z, int k, double maxRadius, UUID exclude) {
+        Map<Long, Map<UUID, Entry<V>>> cells = worlds.get(world);
+        if (cells == null || k <= 0 || maxRadius < 0) {
+            return Collections.emptyList();
+        }
+        double maxRadiusSquared = maxRadius * maxRadius;
+        int originX = cellCoord(x);
+        int originZ = cellCoord(z);
+        int maxRing = (int) Math.ceil(maxRadius / cellSize);
+        List<Hit<V>> hits = new ArrayList<>();
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int cx = originX - ring; cx <= originX + ring; cx++) {
+                for (int cz = originZ - ring; cz <= originZ + ring; cz++) {
+                    if (Math.abs(cx - originX) != ring && Math.abs(cz - originZ) != ring) {
+                        continue;
+                    }
+                    collect(cells.get(cellKey(cx, cz)), x, y, z, maxRadiusSquared, exclude, hits);
+                }
+            }
+            double covered = ring * cellSize;
+            if (hits.size() >= k && countWithin(hits, covered * covered) >= k) {
+                break;
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::getDistanceSquared));
+        return hits.size() > k ? new ArrayList<>(hits.subList(0, k)) : hits;
+    }
+
+    private void put(Entry<V> next) {
+        Entry<V> previous = entries.put(next.id, next);
+        if (previous != null && (previous.cell != next.cell || !previous.world.equals(next.world))) {
+            removeFromCell(previous);
+        }
+        worlds.computeIfAbsent(next.world, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(next.cell, key -> new ConcurrentHashMap<>())
+                .put(next.id, next);
+    }
+
+    private void collect(Map<UUID, Entry<V>> cell, double x, double y, double z, double radiusSquared, UUID exclude,
+                         List<Hit<V>> hits) {
+        if (cell == null) {
+            return;
+        }
+        for (Entry<V> entry : cell.values()) {
+            if (entry.id.equals(exclude)) {
+                continue;
+            }
+            double dx = entry.x - x;
+            double dy = entry.y - y;
+            double dz = entry.z - z;
+            double distanceSquared = dx * dx + dy * dy + dz * dz;
+            if (distanceSquared <= radiusSquared) {
+                hits.add(new Hit<>(entry.value, distanceSquared));
+            }
+        }
+    }
+
+    private int countWithin(List<Hit<V>> hits, double distanceSquared) {
+        int count = 0;
+        for (Hit<V> hit : hits) {
+            if (hit.distanceSquared <= distanceSquared) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void removeFromCell(Entry<V> entry) {
+        Map<Long, Map<UUID, Entry<V>>> cells = worlds.get(entry.world);
+        if (cells == null) {
+            return;
+        }
+        Map<UUID, Entry<V>> cell = cells.get(entry.cell);
+        if (cell != null) {
+            cell.remove(entry.id, entry);
+            if (cell.isEmpty()) {
+                cells.remove(entry.cell, cell);
+            }
+        }
+    }
+
+    private int cellCoord(double value) {
+        return (int) Math.floor(value / cellSize);
+    }
+
+    private static long cellKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xffffffffL);
+    }
+
+    public static final class Hit<V> {
+        private final V value;
+        private final double distanceSquared;
+
+        private Hit(V value, double distanceSquared) {
+            this.value = value;
+            this.distanceSquared = distanceSquared;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public double getDistanceSquared() {
+            return distanceSquared;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final UUID id;
+        private final V value;
+        private final String world;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final long cell;
+
+        private Entry(UUID id, V value, String world, double x, double y, double z, long cell) {
+            this.id = id;
+            this.value = value;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.cell = cell;
+        }
+    }
+}
@@ -1,105 +1,276 @@
 package pl.nop.aiplayers.task;
 
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 import pl.nop.aiplayers.ai.Action;
 import pl.nop.aiplayers.ai.ActionExecutor;
+import pl.nop.aiplayers.ai.DecisionPipeline;
+import pl.nop.aiplayers.ai.NearbyEntity;
 import pl.nop.aiplayers.ai.Perception;
 import pl.nop.aiplayers.ai.controller.AIController;
 import pl.nop.aiplayers.ai.controller.AIControllerRegistry;
-import pl.nop.aiplayers.chat.AIChatService;
+import pl.nop.aiplayers.ai.trigger.TriggerBus;
+import pl.nop.aiplayers.ai.trigger.TriggerType;
 import pl.nop.aiplayers.chat.engagement.ChatEngagementService;
-import pl.nop.aiplayers.economy.AIEconomyService;
+import pl.nop.aiplayers.load.LoadGovernor;
+import pl.nop.aiplayers.logging.AIPlayersFileLogger;
 import pl.nop.aiplayers.manager.AIPlayerManager;
 import pl.nop.aiplayers.model.AIPlayerSession;
-import pl.nop.aiplayers.npc.NPCHandle;
+import pl.nop.aiplayers.model.LodTier;
+import pl.nop.aiplayers.spatial.SpatialIndex;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 public class AITickTask extends BukkitRunnable {
 
+    private static final double NEARBY_RADIUS = 15.0;
+    private static final Set<TriggerType> CHAT_TRIGGER = EnumSet.of(TriggerType.PLAYER_CHAT);
+
     private final pl.nop.aiplayers.AIPlayersPlugin plugin;
     private final AIPlayerManager manager;
     private final AIControllerRegistry controllerRegistry;
-    private final AIEconomyService economyService;
-    private final AIChatService chatService;
+    private final TriggerBus triggerBus;
+    private final WorldSnapshotBuffer snapshotBuffer;
+    private final SpatialIndex<String> playerIndex;
     private final ActionExecutor actionExecutor;
     private final ChatEngagementService engagementService;
+    private final PhasedTickScheduler scheduler;
+    private final PartitionedDecisionRunner partitionRunner;
+    private final LodPolicy lodPolicy;
+    private final DormancyPolicy dormancyPolicy;
+    private final LoadGovernor loadGovernor;
+    private final TickTimings timings;
+    private final long decisionTimeoutMillis;
+    private long tickCounter;
 
     public AITickTask(pl.nop.aiplayers.AIPlayersPlugin plugin, AIPlayerManager manager, AIControllerRegistry controllerRegistry,
-                      AIEconomyService economyService, AIChatService chatService, ActionExecutor actionExecutor,
-                      ChatEngagementService engagementService) {
+                      TriggerBus triggerBus, WorldSnapshotBuffer snapshotBuffer, SpatialIndex<String> playerIndex,
+                      ActionExecutor actionExecutor, ChatEngagementService engagementService, PhasedTickScheduler scheduler,
+                      PartitionedDecisionRunner partitionRunner, LodPolicy lodPolicy, DormancyPolicy dormancyPolicy, LoadGovernor loadGovernor, TickTimings timings,
+                      long decisionTimeoutMillis) {
         this.plugin = plugin;
         this.manager = manager;
         this.controllerRegistry = controllerRegistry;
-        this.economyService = economyService;
-        this.chatService = chatService;
+        this.triggerBus = triggerBus;
+        this.snapshotBuffer = snapshotBuffer;
+        this.playerIndex = playerIndex;
         this.actionExecutor = actionExecutor;
         this.engagementService = engagementService;
+        this.scheduler = scheduler;
+        this.partitionRunner = partitionRunner;
+        this.lodPolicy = lodPolicy;
+        this.dormancyPolicy = dormancyPolicy;
+        this.loadGovernor = loadGovernor;
+        this.timings = timings;
+        this.decisionTimeoutMillis = decisionTimeoutMillis;
     }
 
     @Override
     public void run() {
-        if (engagementService != null) {
+        long start = System.nanoTime();
+        timings.markTickStart(start);
+        long tick = tickCounter++;
+        loadGovernor.tick();
+        long mark = System.nanoTime();
+        actionExecutor.drainInbox();
+        mark = lap(TimingPhase.ACTION_SUBMISSION, mark);
+        if (engagementService != null && scheduler.isPhaseStart(tick)) {
             engagementService.tick(System.currentTimeMillis());
+            mark = lap(TimingPhase.ENGAGEMENT, mark);
         }
-        for (AIPlayerSession session : manager.getAllSessions()) {
-            NPCHandle npc = session.getNpcHandle();
-            if (npc.getLocation() == null) {
-                continue;
-            }
-            actionExecutor.tick(session);
-            Perception perception = buildPerception(session);
-            AIController controller = controllerRegistry.getController(session.getProfile().getControllerType());
-            CompletableFuture<Action> future = controller.decide(session, perception);
-            future.thenAccept(action -> {
-                if (action == null) {
-                    return;
-                }
-                Bukkit.getScheduler().runTask(plugin, () -> actionExecutor.submit(session, action));
-            });
+        Collection<AIPlayerSession> sessions = manager.getAllSessions();
+        WorldSnapshot snapshot = snapshotBuffer.swap(plugin.getServer().getCurrentTick(),
+                plugin.getServer().getOnlinePlayers().size(), sessions);
+        lap(TimingPhase.SNAPSHOT, mark);
+        PartitionedDecisionRunner.Batch<DecisionJob> batch = partitionRunner.newBatch();
+        scheduler.runTick(tick, sessions, session -> {
+            long sessionStart = System.nanoTime();
+            tickSession(session, snapshot, batch);
+            timings.recordBot(session.getProfile().getName(), System.nanoTime() - sessionStart);
+        });
+        timings.recordScheduler(scheduler.getLastProcessed(), scheduler.getLastCarriedOver());
+        if (!batch.isEmpty()) {
+            long dispatchStart = System.nanoTime();
+            partitionRunner.submit(batch, job -> decide(job, snapshot));
+            lap(TimingPhase.CONTROLLER_DISPATCH, dispatchStart);
         }
+        timings.record(TimingPhase.TOTAL, System.nanoTime() - start);
     }
 
-    private Perception buildPerception(AIPlayerSession session) {
-        NPCHandle npc = session.getNpcHandle();
-        Location loc = npc.getLocation();
-        List<String> nearbyPlayers = new ArrayList<>();
-        for (Player player : loc.getWorld().getPlayers()) {
-            if (player.getLocation().distanceSquared(loc) < 225) {
-                nearbyPlayers.add(player.getName() + ":" + Math.sqrt(player.getLocation().distanceSquared(loc)));
-            }
+    private long lap(TimingPhase phase, long since) {
+        long now = System.nanoTime();
+        timings.record(phase, now - since);
+        return now;
+    }
+
+    private void tickSession(AIPlayerSession session, WorldSnapshot snapshot, PartitionedDecisionRunner.Batch<DecisionJob> batch) {
+        WorldSnapshot.BotState self = snapshot.getBot(session.getProfile().getUuid());
+        if (self == null) {
+            return;
         }
-        List<String> nearbyAi = new ArrayList<>();
-        for (AIPlayerSession other : manager.getAllSessions()) {
-            if (other == session) {
-                continue;
-            }
-            Location otherLoc = other.getNpcHandle().getLocation();
-            if (otherLoc != null && otherLoc.getWorld().equals(loc.getWorld()) && otherLoc.distanceSquared(loc) < 225) {
-                nearbyAi.add(other.getProfile().getName());
+        AIController controller = controllerRegistry.getController(session.getProfile().getControllerType());
+        Set<TriggerType> triggers = controller.getTriggers();
+        if (updateDormancy(session, self)) {
+            // Event-only controllers may still answer chat while dormant; the NPC stays dormant unless they pick the bot.
+            if (!triggers.contains(TriggerType.TICK) && session.hasPendingTrigger(CHAT_TRIGGER)) {
+                openDecision(session, self, controller, batch);
             }
+            return;
+        }
+        long visit = session.nextLodVisit();
+        LodTier tier = updateLodTier(session, self);
+        if (lodPolicy.shouldTickActions(tier, visit)) {
+            long actionStart = System.nanoTime();
+            actionExecutor.tick(session);
+            lap(TimingPhase.ACTION_TICK, actionStart);
         }
-        double balance = economyService.getBalance(session.getProfile());
-        List<String> inventory = summarizeInventory(session);
-        List<String> chat = chatService.getChatHistorySnapshot();
-        return new Perception(session.getProfile().getName(), session.getProfile().getUuid(), loc.getWorld().getName(), loc.clone(),
-                nearbyPlayers, nearbyAi, balance, inventory, chat, plugin.getServer().getCurrentTick());
+        if (triggers.contains(TriggerType.PLAYER_ENTERED_RADIUS)) {
+            detectPlayersEnteringRadius(session, self);
+        }
+        boolean polled = triggers.contains(TriggerType.TICK) && lodPolicy.shouldDecide(tier, visit);
+        if (!polled && !session.hasPendingTrigger(triggers)) {
+            return;
+        }
+        openDecision(session, self, controller, batch);
+    }
+
+    private void openDecision(AIPlayerSession session, WorldSnapshot.BotState self, AIController controller,
+                              PartitionedDecisionRunner.Batch<DecisionJob> batch) {
+        DecisionPipeline pipeline = session.getDecisionPipeline();
+        long generation = pipeline.tryBegin(System.currentTimeMillis(), decisionTimeoutMillis);
+        if (generation == DecisionPipeline.SKIPPED) {
+            return;
+        }
+        session.clearTriggers();
+        batch.add(self.getWorldName(), self.getX(), self.getZ(), new DecisionJob(session, self, controller, generation));
     }
 
-    private List<String> summarizeInventory(AIPlayerSession session) {
-        List<String> summary = new ArrayList<>();
-        session.getInventory().forEach(item -> {
-            if (item != null) {
-                summary.add(item.getType().name() + " x" + item.getAmount());
+    private void decide(DecisionJob job, WorldSnapshot snapshot) {
+        AIPlayerSession session = job.session;
+        CompletableFuture<Action> decision;
+        try {
+            decision = job.controller.decide(session, timedPerception(session, job.self, snapshot));
+        } catch (RuntimeException ex) {
+            decision = CompletableFuture.failedFuture(ex);
+        }
+        decision.whenComplete((action, throwable) -> {
+            if (throwable != null) {
+                plugin.getLogger().warning("Controller failed to decide for " + session.getProfile().getName() + ": "
+                        + throwable.getMessage());
             }
+            actionExecutor.enqueueDecision(session, job.generation, throwable == null ? action : null);
         });
-        return summary;
     }
 
-    // Action execution handled by ActionExecutor
+    private Perception timedPerception(AIPlayerSession session, WorldSnapshot.BotState self, WorldSnapshot snapshot) {
+        long start = System.nanoTime();
+        Perception perception = buildPerception(session, self, snapshot);
+        timings.record(TimingPhase.PERCEPTION, System.nanoTime() - start);
+        return perception;
+    }
+
+    private void detectPlayersEnteringRadius(AIPlayerSession session, WorldSnapshot.BotState self) {
+        List<SpatialIndex.Hit<String>> hits = playerIndex.queryRange(self.getWorldName(), self.getX(), self.getY(), self.getZ(),
+                NEARBY_RADIUS, null);
+        Set<String> previous = session.getPlayersInRadius();
+        if (hits.isEmpty() && previous.isEmpty()) {
+            return;
+        }
+        Set<String> current = new HashSet<>();
+        boolean entered = false;
+        for (SpatialIndex.Hit<String> hit : hits) {
+            current.add(hit.getValue());
+            entered |= !previous.contains(hit.getValue());
+        }
+        session.setPlayersInRadius(current);
+        if (entered) {
+            triggerBus.publish(session, TriggerType.PLAYER_ENTERED_RADIUS);
+        }
+    }
+
+    private LodTier updateLodTier(AIPlayerSession session, WorldSnapshot.BotState self) {
+        if (!lodPolicy.isEnabled()) {
+            return session.getLodTier();
+        }
+        List<SpatialIndex.Hit<String>> nearest = playerIndex.nearest(self.getWorldName(), self.getX(), self.getY(), self.getZ(),
+                1, lodPolicy.getFarDistance(), null);
+        LodTier tier = lodPolicy.tierFor(nearest.isEmpty() ? Double.MAX_VALUE : nearest.get(0).getDistanceSquared());
+        session.setLodTier(tier);
+        return tier;
+    }
+
+    private boolean updateDormancy(AIPlayerSession session, WorldSnapshot.BotState self) {
+        long now = System.currentTimeMillis();
+        int chunkX = (int) Math.floor(self.getX()) >> 4;
+        int chunkZ = (int) Math.floor(self.getZ()) >> 4;
+        boolean chunkLoaded = self.getWorld().isChunkLoaded(chunkX, chunkZ);
+        boolean viewerInRange = !dormancyPolicy.isEnabled() || !playerIndex.nearest(self.getWorldName(), self.getX(), self.getY(),
+                self.getZ(), 1, dormancyPolicy.getViewDistance(), null).isEmpty();
+        boolean wakeRequested = dormancyPolicy.isWakeRequested(session.getWakeRequestedMillis(), now);
+        boolean dormant = dormancyPolicy.shouldBeDormant(chunkLoaded, viewerInRange, wakeRequested);
+        if (dormant == session.isDormant()) {
+            return dormant;
+        }
+        session.setDormant(dormant, now);
+        session.getNpcHandle().setDormant(dormant);
+        if (dormant) {
+            logToFile("AIPlayer " + session.getProfile().getName() + " went dormant ("
+                    + (chunkLoaded ? "no viewers in range" : "chunk unloaded") + ")");
+        } else {
+            logToFile("AIPlayer " + session.getProfile().getName() + " woke up ("
+                    + (wakeRequested ? "mentioned or picked to answer in chat" : "viewer in range") + ")");
+        }
+        return dormant;
+    }
+
+    private Perception buildPerception(AIPlayerSession session, WorldSnapshot.BotState self, WorldSnapshot snapshot) {
+        String world = self.getWorldName();
+        double x = self.getX();
+        double y = self.getY();
+        double z = self.getZ();
+        return new Perception(self.getName(), self.getUuid(), world, self::toLocation,
+                () -> {
+                    List<NearbyEntity> players = new ArrayList<>();
+                    for (SpatialIndex.Hit<String> hit : snapshot.getPlayers().queryRange(world, x, y, z, NEARBY_RADIUS, null)) {
+                        players.add(new NearbyEntity(hit.getValue(), hit.getDistanceSquared()));
+                    }
+                    return players;
+                },
+                () -> {
+                    List<NearbyEntity> bots = new ArrayList<>();
+                    SpatialIndex<AIPlayerSession> botIndex = snapshot.getBotIndex();
+                    for (SpatialIndex.Hit<AIPlayerSession> hit : botIndex.queryRange(world, x, y, z, NEARBY_RADIUS, self.getUuid())) {
+                        bots.add(new NearbyEntity(hit.getValue().getProfile().getName(), hit.getDistanceSquared()));
+                    }
+                    return bots;
+                },
+                self.getBalance(), self::getInventorySummary, snapshot.getChat(), snapshot.getServerTick(),
+                snapshot.getOnlinePlayers());
+    }
+
+    private void logToFile(String message) {
+        AIPlayersFileLogger fileLogger = plugin.getFileLogger();
+        if (fileLogger != null) {
+            fileLogger.info(message);
+        }
+    }
+
+    private static final class DecisionJob {
+        private final AIPlayerSession session;
+        private final WorldSnapshot.BotState self;
+        private final AIController controller;
+        private final long generation;
+
+        private DecisionJob(AIPlayerSession session, WorldSnapshot.BotState self, AIController controller, long generation) {
+            this.session = session;
+            this.self = self;
+            this.controller = controller;
+            this.generation = generation;
+        }
+    }
 }
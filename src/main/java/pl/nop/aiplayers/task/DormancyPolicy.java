@@ -0,0 +1,35 @@
+package pl.nop.aiplayers.task;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+public class DormancyPolicy {
+
+    private final boolean enabled;
+    private final double viewDistance;
+    private final long chatWakeMillis;
+
+    public DormancyPolicy(FileConfiguration config) {
+        this.enabled = config.getBoolean("ai.dormancy.enabled", true);
+        this.viewDistance = Math.max(0.0, config.getDouble("ai.dormancy.view-distance", 128.0));
+        this.chatWakeMillis = Math.max(0L, config.getLong("ai.dormancy.chat-wake-millis", 30000L));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getViewDistance() {
+        return viewDistance;
+    }
+
+    public boolean isWakeRequested(long wakeRequestedMillis, long nowMillis) {
+        return wakeRequestedMillis > 0 && nowMillis - wakeRequestedMillis < chatWakeMillis;
+    }
+
+    public boolean shouldBeDormant(boolean chunkLoaded, boolean viewerInRange, boolean wakeRequested) {
+        if (!enabled || wakeRequested) {
+            return false;
+        }
+        return !chunkLoaded || !viewerInRange;
+    }
+}
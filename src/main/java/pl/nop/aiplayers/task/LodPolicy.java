@@ -0,0 +1,71 @@
+package pl.nop.aiplayers.task;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import pl.nop.aiplayers.model.LodTier;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class LodPolicy {
+
+    private final boolean enabled;
+    private final double nearDistanceSquared;
+    private final double midDistanceSquared;
+    private final double farDistanceSquared;
+    private final double farDistance;
+    private final Map<LodTier, Integer> decisionIntervals = new EnumMap<>(LodTier.class);
+    private final Map<LodTier, Integer> actionIntervals = new EnumMap<>(LodTier.class);
+
+    public LodPolicy(FileConfiguration config) {
+        this.enabled = config.getBoolean("ai.lod.enabled", true);
+        double near = Math.max(0.0, config.getDouble("ai.lod.near-distance", 16.0));
+        double mid = Math.max(near, config.getDouble("ai.lod.mid-distance", 48.0));
+        double far = Math.max(mid, config.getDouble("ai.lod.far-distance", 96.0));
+        this.nearDistanceSquared = near * near;
+        this.midDistanceSquared = mid * mid;
+        this.farDistanceSquared = far * far;
+        this.farDistance = far;
+        loadIntervals(config, LodTier.NEAR, 1, 1);
+        loadIntervals(config, LodTier.MID, 2, 1);
+        loadIntervals(config, LodTier.FAR, 4, 2);
+        loadIntervals(config, LodTier.UNOBSERVED, 8, 4);
+    }
+
+    private void loadIntervals(FileConfiguration config, LodTier tier, int defaultDecision, int defaultAction) {
+        String path = "ai.lod.tiers." + tier.name().toLowerCase();
+        decisionIntervals.put(tier, Math.max(1, config.getInt(path + ".decision-interval", defaultDecision)));
+        actionIntervals.put(tier, Math.max(1, config.getInt(path + ".action-interval", defaultAction)));
+    }
+
+    public LodTier tierFor(double nearestHumanDistanceSquared) {
+        if (!enabled) {
+            return LodTier.NEAR;
+        }
+        if (nearestHumanDistanceSquared <= nearDistanceSquared) {
+            return LodTier.NEAR;
+        }
+        if (nearestHumanDistanceSquared <= midDistanceSquared) {
+            return LodTier.MID;
+        }
+        if (nearestHumanDistanceSquared <= farDistanceSquared) {
+            return LodTier.FAR;
+        }
+        return LodTier.UNOBSERVED;
+    }
+
+    public double getFarDistance() {
+        return farDistance;
+    }
+
+    public boolean shouldDecide(LodTier tier, long visit) {
+        return !enabled || visit % decisionIntervals.get(tier) == 0;
+    }
+
+    public boolean shouldTickActions(LodTier tier, long visit) {
+        return !enabled || visit % actionIntervals.get(tier) == 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,147 @@
+package pl.nop.aiplayers.task;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+public class PartitionedDecisionRunner {
+
+    private final ForkJoinPool pool;
+    private final double regionSize;
+    private final int splitThreshold;
+    private volatile int lastPartitionCount;
+    private volatile int lastJobCount;
+
+    public PartitionedDecisionRunner(FileConfiguration config) {
+        int configured = config.getInt("ai.partition.parallelism", 0);
+        int parallelism = configured > 0 ? configured : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.regionSize = Math.max(16.0, config.getDouble("ai.partition.region-size-blocks", 512.0));
+        this.splitThreshold = Math.max(1, config.getInt("ai.partition.split-threshold", 8));
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("AIPlayers-Partition-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public <T> Batch<T> newBatch() {
+        return new Batch<>();
+    }
+
+    public <T> void submit(Batch<T> batch, Consumer<T> work) {
+        lastPartitionCount = batch.partitions.size();
+        lastJobCount = batch.size;
+        if (batch.partitions.isEmpty() || pool.isShutdown()) {
+            return;
+        }
+        for (List<T> jobs : batch.partitions.values()) {
+            pool.execute(new PartitionTask<>(jobs, 0, jobs.size(), work));
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getActiveThreadCount() {
+        return pool.getActiveThreadCount();
+    }
+
+    public long getQueuedTaskCount() {
+        return pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount();
+    }
+
+    public int getLastPartitionCount() {
+        return lastPartitionCount;
+    }
+
+    public int getLastJobCount() {
+        return lastJobCount;
+    }
+
+    public final class Batch<T> {
+        private final Map<PartitionKey, List<T>> partitions = new HashMap<>();
+        private int size;
+
+        private Batch() {
+        }
+
+        public void add(String world, double x, double z, T job) {
+            PartitionKey key = new PartitionKey(world, (int) Math.floor(x / regionSize), (int) Math.floor(z / regionSize));
+            partitions.computeIfAbsent(key, ignored -> new ArrayList<>()).add(job);
+            size++;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    private final class PartitionTask<T> extends RecursiveAction {
+        private final List<T> jobs;
+        private final int from;
+        private final int to;
+        private final Consumer<T> work;
+
+        private PartitionTask(List<T> jobs, int from, int to, Consumer<T> work) {
+            this.jobs = jobs;
+            this.from = from;
+            this.to = to;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= splitThreshold) {
+                for (int i = from; i < to; i++) {
+                    work.accept(jobs.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PartitionTask<>(jobs, from, middle, work), new PartitionTask<>(jobs, middle, to, work));
+        }
+    }
+
+    private static final class PartitionKey {
+        private final String world;
+        private final int regionX;
+        private final int regionZ;
+
+        private PartitionKey(String world, int regionX, int regionZ) {
+            this.world = world;
+            this.regionX = regionX;
+            this.regionZ = regionZ;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof PartitionKey)) {
+                return false;
+            }
+            PartitionKey key = (PartitionKey) other;
+            return regionX == key.regionX && regionZ == key.regionZ && world.equals(key.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(world, regionX, regionZ);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package pl.nop.aiplayers.task;
+
+import pl.nop.aiplayers.model.AIPlayerSession;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class PhasedTickScheduler {
+
+    private final int phaseCount;
+    private final long tickBudgetNanos;
+    private final Set<AIPlayerSession> carryOver = new LinkedHashSet<>();
+    private int lastProcessed;
+    private int lastCarriedOver;
+
+    public PhasedTickScheduler(int phaseCount, long tickBudgetNanos) {
+        this.phaseCount = Math.max(1, phaseCount);
+        this.tickBudgetNanos = Math.max(0L, tickBudgetNanos);
+    }
+
+    public int phaseOf(AIPlayerSession session) {
+        return Math.floorMod(session.getProfile().getUuid().hashCode(), phaseCount);
+    }
+
+    public boolean isPhaseStart(long tick) {
+        return Math.floorMod(tick, phaseCount) == 0;
+    }
+
+    public void runTick(long tick, Collection<AIPlayerSession> sessions, Consumer<AIPlayerSession> work) {
+        int phase = (int) Math.floorMod(tick, phaseCount);
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        Set<AIPlayerSession> due = new LinkedHashSet<>(carryOver);
+        carryOver.clear();
+        for (AIPlayerSession session : sessions) {
+            if (phaseOf(session) == phase) {
+                due.add(session);
+            }
+        }
+        int processed = 0;
+        Iterator<AIPlayerSession> iterator = due.iterator();
+        while (iterator.hasNext()) {
+            AIPlayerSession session = iterator.next();
+            if (session.isDespawned()) {
+                continue;
+            }
+            if (processed > 0 && tickBudgetNanos > 0 && System.nanoTime() >= deadline) {
+                carryOver.add(session);
+                iterator.forEachRemaining(remaining -> {
+                    if (!remaining.isDespawned()) {
+                        carryOver.add(remaining);
+                    }
+                });
+                break;
+            }
+            work.accept(session);
+            processed++;
+        }
+        lastProcessed = processed;
+        lastCarriedOver = carryOver.size();
+    }
+
+    public int getPhaseCount() {
+        return phaseCount;
+    }
+
+    public long getTickBudgetNanos() {
+        return tickBudgetNanos;
+    }
+
+    public int getLastProcessed() {
+        return lastProcessed;
+    }
+
+    public int getLastCarriedOver() {
+        return lastCarriedOver;
+    }
+}
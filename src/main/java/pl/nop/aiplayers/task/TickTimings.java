@@ -0,0 +1,119 @@
+package pl.nop.aiplayers.task;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TickTimings {
+
+    private static final long EXPECTED_TICK_NANOS = 50_000_000L;
+
+    private final Map<TimingPhase, NanoHistogram> phases = new EnumMap<>(TimingPhase.class);
+    private final NanoHistogram drift = new NanoHistogram();
+    private final long botWindowNanos;
+    private volatile Map<String, LongAdder> currentBotCosts = new ConcurrentHashMap<>();
+    private volatile Map<String, LongAdder> previousBotCosts = new ConcurrentHashMap<>();
+    private volatile long windowStartedNanos = System.nanoTime();
+    private volatile long resetAtMillis = System.currentTimeMillis();
+    private long lastRunNanos;
+    private volatile int lastCarriedOver;
+    private volatile int lastProcessed;
+
+    public TickTimings(long botWindowMillis) {
+        this.botWindowNanos = Math.max(1000L, botWindowMillis) * 1_000_000L;
+        for (TimingPhase phase : TimingPhase.values()) {
+            phases.put(phase, new NanoHistogram());
+        }
+    }
+
+    public void markTickStart(long nowNanos) {
+        if (lastRunNanos != 0L) {
+            drift.record(Math.abs(nowNanos - lastRunNanos - EXPECTED_TICK_NANOS));
+        }
+        lastRunNanos = nowNanos;
+        if (nowNanos - windowStartedNanos >= botWindowNanos) {
+            previousBotCosts = currentBotCosts;
+            currentBotCosts = new ConcurrentHashMap<>();
+            windowStartedNanos = nowNanos;
+        }
+    }
+
+    public void record(TimingPhase phase, long nanos) {
+        phases.get(phase).record(nanos);
+    }
+
+    public void recordBot(String name, long nanos) {
+        currentBotCosts.computeIfAbsent(name, key -> new LongAdder()).add(nanos);
+    }
+
+    public void recordScheduler(int processed, int carriedOver) {
+        this.lastProcessed = processed;
+        this.lastCarriedOver = carriedOver;
+    }
+
+    public NanoHistogram getPhase(TimingPhase phase) {
+        return phases.get(phase);
+    }
+
+    public NanoHistogram getDrift() {
+        return drift;
+    }
+
+    public int getLastProcessed() {
+        return lastProcessed;
+    }
+
+    public int getLastCarriedOver() {
+        return lastCarriedOver;
+    }
+
+    public long getResetAtMillis() {
+        return resetAtMillis;
+    }
+
+    public long getBotWindowMillis() {
+        return botWindowNanos / 1_000_000L;
+    }
+
+    public List<BotCost> getSlowestBots(int limit) {
+        Map<String, LongAdder> window = previousBotCosts.isEmpty() ? currentBotCosts : previousBotCosts;
+        List<BotCost> costs = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> entry : window.entrySet()) {
+            costs.add(new BotCost(entry.getKey(), entry.getValue().sum()));
+        }
+        costs.sort((a, b) -> Long.compare(b.getNanos(), a.getNanos()));
+        return costs.size() > limit ? new ArrayList<>(costs.subList(0, limit)) : costs;
+    }
+
+    public void reset() {
+        for (NanoHistogram histogram : phases.values()) {
+            histogram.reset();
+        }
+        drift.reset();
+        currentBotCosts = new ConcurrentHashMap<>();
+        previousBotCosts = new ConcurrentHashMap<>();
+        windowStartedNanos = System.nanoTime();
+        resetAtMillis = System.currentTimeMillis();
+    }
+
+    public static final class BotCost {
+        private final String name;
+        private final long nanos;
+
+        BotCost(String name, long nanos) {
+            this.name = name;
+            this.nanos = nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package pl.nop.aiplayers.task;
+
+public enum TimingPhase {
+    TOTAL,
+    ACTION_SUBMISSION,
+    ENGAGEMENT,
+    SNAPSHOT,
+    ACTION_TICK,
+    PERCEPTION,
+    CONTROLLER_DISPATCH
+}
@@ -0,0 +1,154 @@
+package pl.nop.aiplayers.task;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import pl.nop.aiplayers.ai.ChatView;
+import pl.nop.aiplayers.model.AIPlayerSession;
+import pl.nop.aiplayers.spatial.SpatialIndex;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public final class WorldSnapshot {
+
+    public static final WorldSnapshot EMPTY = new WorldSnapshot(0L, 0L, ChatView.EMPTY, Collections.emptyMap(),
+            -1L, new SpatialIndex<>(16.0), -1L, new SpatialIndex<>(16.0), 0);
+
+    private final long serverTick;
+    private final long chatSequence;
+    private final ChatView chat;
+    private final Map<UUID, BotState> bots;
+    private final long playersVersion;
+    private final SpatialIndex<String> players;
+    private final long botIndexVersion;
+    private final SpatialIndex<AIPlayerSession> botIndex;
+    private final int onlinePlayers;
+
+    WorldSnapshot(long serverTick, long chatSequence, ChatView chat, Map<UUID, BotState> bots, long playersVersion,
+                  SpatialIndex<String> players, long botIndexVersion, SpatialIndex<AIPlayerSession> botIndex,
+                  int onlinePlayers) {
+        this.serverTick = serverTick;
+        this.chatSequence = chatSequence;
+        this.chat = chat;
+        this.bots = bots;
+        this.playersVersion = playersVersion;
+        this.players = players;
+        this.botIndexVersion = botIndexVersion;
+        this.botIndex = botIndex;
+        this.onlinePlayers = onlinePlayers;
+    }
+
+    public long getServerTick() {
+        return serverTick;
+    }
+
+    public long getChatSequence() {
+        return chatSequence;
+    }
+
+    public ChatView getChat() {
+        return chat;
+    }
+
+    public long getPlayersVersion() {
+        return playersVersion;
+    }
+
+    public SpatialIndex<String> getPlayers() {
+        return players;
+    }
+
+    public long getBotIndexVersion() {
+        return botIndexVersion;
+    }
+
+    public SpatialIndex<AIPlayerSession> getBotIndex() {
+        return botIndex;
+    }
+
+    public int getOnlinePlayers() {
+        return onlinePlayers;
+    }
+
+    public BotState getBot(UUID uuid) {
+        return bots.get(uuid);
+    }
+
+    public Collection<BotState> getBots() {
+        return Collections.unmodifiableCollection(bots.values());
+    }
+
+    public int getBotCount() {
+        return bots.size();
+    }
+
+    public static final class BotState {
+        private final UUID uuid;
+        private final String name;
+        private final World world;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final float yaw;
+        private final float pitch;
+        private final double balance;
+        private final List<String> inventorySummary;
+
+        BotState(UUID uuid, String name, World world, double x, double y, double z, float yaw, float pitch,
+                 double balance, List<String> inventorySummary) {
+            this.uuid = uuid;
+            this.name = name;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.yaw = yaw;
+            this.pitch = pitch;
+            this.balance = balance;
+            this.inventorySummary = inventorySummary;
+        }
+
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public World getWorld() {
+            return world;
+        }
+
+        public String getWorldName() {
+            return world.getName();
+        }
+
+        public double getBalance() {
+            return balance;
+        }
+
+        public List<String> getInventorySummary() {
+            return inventorySummary;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        public double getZ() {
+            return z;
+        }
+
+        public Location toLocation() {
+            return new Location(world, x, y, z, yaw, pitch);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package pl.nop.aiplayers.task;
+
+import org.bukkit.Location;
+import pl.nop.aiplayers.ai.ChatView;
+import pl.nop.aiplayers.chat.AIChatService;
+import pl.nop.aiplayers.economy.AIEconomyService;
+import pl.nop.aiplayers.model.AIPlayerSession;
+import pl.nop.aiplayers.spatial.SpatialIndex;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class WorldSnapshotBuffer {
+
+    private final AIEconomyService economyService;
+    private final AIChatService chatService;
+    private final SpatialIndex<String> playerIndex;
+    private final SpatialIndex<AIPlayerSession> botIndex;
+    private volatile WorldSnapshot front = WorldSnapshot.EMPTY;
+
+    public WorldSnapshotBuffer(AIEconomyService economyService, AIChatService chatService, SpatialIndex<String> playerIndex,
+                               SpatialIndex<AIPlayerSession> botIndex) {
+        this.economyService = economyService;
+        this.chatService = chatService;
+        this.playerIndex = playerIndex;
+        this.botIndex = botIndex;
+    }
+
+    public WorldSnapshot getFront() {
+        return front;
+    }
+
+    public WorldSnapshot swap(long serverTick, int onlinePlayers, Collection<AIPlayerSession> sessions) {
+        WorldSnapshot previous = front;
+
+        long chatSequence = chatService.getChatSequence();
+        ChatView chat = previous.getChat();
+        if (chatSequence != previous.getChatSequence() || previous == WorldSnapshot.EMPTY) {
+            chat = new ChatView(chatService.getChatEntriesSnapshot());
+        }
+
+        long playersVersion = playerIndex.getVersion();
+        SpatialIndex<String> players = previous.getPlayers();
+        if (playersVersion != previous.getPlayersVersion()) {
+            players = playerIndex.copy();
+        }
+        long botIndexVersion = botIndex.getVersion();
+        SpatialIndex<AIPlayerSession> bots = previous.getBotIndex();
+        if (botIndexVersion != previous.getBotIndexVersion()) {
+            bots = botIndex.copy();
+        }
+
+        Map<UUID, WorldSnapshot.BotState> states = new HashMap<>();
+        for (AIPlayerSession session : sessions) {
+            if (session.isDespawned()) {
+                continue;
+            }
+            Location loc = session.getNpcHandle().getLocation();
+            if (loc == null || loc.getWorld() == null) {
+                continue;
+            }
+            UUID uuid = session.getProfile().getUuid();
+            double balance = economyService.getCachedBalance(session.getProfile());
+            List<String> inventory = session.getInventorySummary().getLines();
+            WorldSnapshot.BotState state = new WorldSnapshot.BotState(uuid, session.getProfile().getName(), loc.getWorld(),
+                    loc.getX(), loc.getY(), loc.getZ(), loc.getYaw(), loc.getPitch(), balance, inventory);
+            states.put(uuid, state);
+        }
+
+        WorldSnapshot next = new WorldSnapshot(serverTick, chatSequence, chat, states, playersVersion, players,
+                botIndexVersion, bots, onlinePlayers);
+        front = next;
+        return next;
+    }
+}
@@ -0,0 +1,113 @@
+package pl.nop.aiplayers.planner;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+class LocalPlannerSidecar implements AutoCloseable {
+
+    private static final int MAX_FRAME_BYTES = 1048576;
+
+    private final Path socketPath;
+    private final String reply;
+    private final Queue<String> rawFrames = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private ServerSocketChannel server;
+    private volatile boolean running;
+
+    LocalPlannerSidecar(Path socketPath, String reply) {
+        this.socketPath = socketPath;
+        this.reply = reply;
+    }
+
+    void start() throws IOException {
+        Files.deleteIfExists(socketPath);
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+        running = true;
+        Thread acceptor = new Thread(this::acceptLoop, "AIPlayers-Planner-StandIn");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    void sendBeforeNextAnswer(String frame) {
+        rawFrames.add(frame);
+    }
+
+    long getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (server != null) {
+            server.close();
+        }
+        Files.deleteIfExists(socketPath);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                SocketChannel client = server.accept();
+                Thread handler = new Thread(() -> serve(client), "AIPlayers-Planner-StandIn-Client");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        try (client) {
+            while (running) {
+                String frame = PlannerFrames.read(client, MAX_FRAME_BYTES);
+                requestCount.incrementAndGet();
+                String raw;
+                while ((raw = rawFrames.poll()) != null) {
+                    PlannerFrames.write(client, raw);
+                }
+                PlannerFrames.write(client, answer(frame));
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private String answer(String frame) {
+        JsonObject response = new JsonObject();
+        JsonArray actions = new JsonArray();
+        try {
+            JsonObject envelope = JsonParser.parseString(frame).getAsJsonObject();
+            response.add("request_id", envelope.get("request_id"));
+            JsonObject request = envelope.getAsJsonObject("request");
+            JsonArray bots = request == null ? null : request.getAsJsonArray("bots");
+            if (bots != null) {
+                for (JsonElement bot : bots) {
+                    JsonObject action = new JsonObject();
+                    action.add("bot_id", bot.getAsJsonObject().get("bot_id"));
+                    action.addProperty("send_after_ms", 0);
+                    action.addProperty("message", reply);
+                    actions.add(action);
+                }
+            }
+        } catch (JsonParseException | IllegalStateException ignored) {
+        }
+        response.add("actions", actions);
+        return response.toString();
+    }
+}
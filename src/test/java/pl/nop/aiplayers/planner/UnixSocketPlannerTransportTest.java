@@ -0,0 +1,100 @@
+package pl.nop.aiplayers.planner;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnixSocketPlannerTransportTest {
+
+    private static final String PAYLOAD = "{\"bots\":[{\"bot_id\":\"bot-1\"}]}";
+    private static final int MAX_FRAME_BYTES = 1024;
+
+    @TempDir
+    Path directory;
+
+    private LocalPlannerSidecar sidecar;
+    private UnixSocketPlannerTransport transport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path socket = directory.resolve("planner.sock");
+        sidecar = new LocalPlannerSidecar(socket, "hej!");
+        sidecar.start();
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("ai.remote.unix-socket.path", socket.toString());
+        config.set("ai.remote.unix-socket.max-frame-bytes", MAX_FRAME_BYTES);
+        config.set("ai.remote.unix-socket.reconnect-delay-millis", 0L);
+        config.set("ai.remote.request-timeout-millis", 2000L);
+        transport = new UnixSocketPlannerTransport(plugin(), new UnixSocketPlannerConfig(config));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        transport.shutdown();
+        sidecar.close();
+    }
+
+    @Test
+    void deliversActionsFromGoodFrame() throws Exception {
+        List<String> actions = new CopyOnWriteArrayList<>();
+
+        boolean success = transport.send("Planner", "req-1", PAYLOAD, actions::add).get(5, TimeUnit.SECONDS);
+
+        assertTrue(success);
+        assertEquals(1, actions.size());
+        JsonObject action = JsonParser.parseString(actions.get(0)).getAsJsonObject();
+        assertEquals("bot-1", action.get("bot_id").getAsString());
+        assertEquals("hej!", action.get("message").getAsString());
+    }
+
+    @Test
+    void skipsMalformedFrameAndKeepsReading() throws Exception {
+        List<String> actions = new CopyOnWriteArrayList<>();
+        sidecar.sendBeforeNextAnswer("{not json");
+        sidecar.sendBeforeNextAnswer("{\"request_id\":{\"nested\":true},\"actions\":5}");
+
+        boolean success = transport.send("Planner", "req-2", PAYLOAD, actions::add).get(5, TimeUnit.SECONDS);
+
+        assertTrue(success);
+        assertEquals(1, actions.size());
+    }
+
+    @Test
+    void failsPendingOnOversizedFrameAndReconnects() throws Exception {
+        List<String> actions = new CopyOnWriteArrayList<>();
+        sidecar.sendBeforeNextAnswer("{\"padding\":\"" + "x".repeat(MAX_FRAME_BYTES * 2) + "\"}");
+
+        boolean failed = transport.send("Planner", "req-3", PAYLOAD, actions::add).get(5, TimeUnit.SECONDS);
+
+        assertFalse(failed);
+        assertTrue(actions.isEmpty());
+
+        boolean recovered = transport.send("Planner", "req-4", PAYLOAD, actions::add).get(5, TimeUnit.SECONDS);
+
+        assertTrue(recovered);
+        assertEquals(1, actions.size());
+        assertEquals(2, sidecar.getRequestCount());
+    }
+
+    private static Plugin plugin() {
+        Logger logger = Logger.getLogger(UnixSocketPlannerTransportTest.class.getName());
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[]{Plugin.class},
+                (proxy, method, args) -> method.getName().equals("getLogger") ? logger : null);
+    }
+}